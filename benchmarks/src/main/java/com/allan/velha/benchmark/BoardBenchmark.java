@@ -0,0 +1,66 @@
+package com.allan.velha.benchmark;
+
+import com.allan.velha.domain.model.Board;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operações básicas do {@link Board} em um tabuleiro no meio da partida.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBenchmark {
+    @Param({ "3:3", "15:5" })
+    public String shape;
+
+    private Board board;
+
+    @Setup
+    public void setup() {
+        String[] parts = shape.split(":");
+        int size = Integer.parseInt(parts[0]);
+        board = new Board(size, Integer.parseInt(parts[1]));
+        // Cinco jogadas sem vencedor espalhadas pelo tabuleiro
+        int[] cells = { 0, 4, 8 % (size * size), size * size - 1, size };
+        char symbol = 'X';
+        for (int cell : cells) {
+            board.makeMove(cell / size, cell % size, symbol);
+            symbol = symbol == 'X' ? 'O' : 'X';
+        }
+    }
+
+    @Benchmark
+    public boolean checkWin() {
+        return board.checkWin('X');
+    }
+
+    @Benchmark
+    public boolean isFull() {
+        return board.isFull();
+    }
+
+    @Benchmark
+    public char[][] getState() {
+        return board.getState();
+    }
+
+    @Benchmark
+    public char getCell() {
+        return board.getCell(1, 1);
+    }
+}
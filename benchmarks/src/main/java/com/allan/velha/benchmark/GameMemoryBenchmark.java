@@ -0,0 +1,105 @@
+package com.allan.velha.benchmark;
+
+import com.allan.velha.domain.model.GameMemory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consulta, aprendizado e carga da {@link GameMemory} com memórias de tamanhos
+ * diferentes, em cada armazenamento.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameMemoryBenchmark {
+    private static final int QUERIES = 1024;
+
+    /** Jogadas perdedoras registradas antes da medição. */
+    @Param({ "10", "10000", "1000000" })
+    public int entries;
+
+    @Param({ "journal", "mapped" })
+    public String backend;
+
+    private GameMemory gameMemory;
+    private char[][][] boards;
+    private int[] cells;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        System.setProperty("velha.memory.dir", Files.createTempDirectory("velha-bench").toString());
+        System.setProperty("velha.memory.backend", backend);
+        gameMemory = new GameMemory();
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < entries; i++) {
+            int cell = random.nextInt(9);
+            gameMemory.addLosingMove(randomBoard(random, cell), cell / 3, cell % 3);
+        }
+
+        boards = new char[QUERIES][][];
+        cells = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            cells[i] = random.nextInt(9);
+            boards[i] = randomBoard(random, cells[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        gameMemory.close();
+    }
+
+    @Benchmark
+    public boolean isLosingMove() {
+        int i = next++ & (QUERIES - 1);
+        return gameMemory.isLosingMove(boards[i], cells[i] / 3, cells[i] % 3);
+    }
+
+    @Benchmark
+    public void addLosingMove() {
+        int i = next++ & (QUERIES - 1);
+        gameMemory.addLosingMove(boards[i], cells[i] / 3, cells[i] % 3);
+    }
+
+    /**
+     * Abre e fecha a memória já populada, como na inicialização do jogo.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Measurement(iterations = 20)
+    public void loadMemory() {
+        new GameMemory().close();
+    }
+
+    /**
+     * Tabuleiro com peças ao acaso, deixando livre a casa da jogada.
+     */
+    private static char[][] randomBoard(SplittableRandom random, int freeCell) {
+        char[][] board = new char[3][3];
+        for (int cell = 0; cell < 9; cell++) {
+            int value = cell == freeCell ? 0 : random.nextInt(3);
+            board[cell / 3][cell % 3] = value == 1 ? 'X' : value == 2 ? 'O' : ' ';
+        }
+        return board;
+    }
+}
@@ -0,0 +1,26 @@
+package com.allan.velha.benchmark;
+
+import com.allan.velha.domain.model.Game;
+import com.allan.velha.domain.model.Player;
+
+/**
+ * Posições fixas usadas pelos benchmarks.
+ */
+final class Positions {
+    /** Partida completa que termina empatada: X e O alternando, X começa. */
+    static final int[] DRAWN_GAME = { 4, 0, 2, 6, 3, 5, 1, 7, 8 };
+
+    private Positions() {
+    }
+
+    /**
+     * Cria um jogo 3x3 após as primeiras {@code plies} jogadas de {@link #DRAWN_GAME}.
+     */
+    static Game classicGame(int plies) {
+        Game game = new Game(new Player("X"), new Player("O"));
+        for (int i = 0; i < plies; i++) {
+            game.makeMove(DRAWN_GAME[i] / 3, DRAWN_GAME[i] % 3);
+        }
+        return game;
+    }
+}
@@ -0,0 +1,63 @@
+package com.allan.velha.benchmark;
+
+import com.allan.velha.domain.model.Game;
+import com.allan.velha.domain.model.GameMemory;
+import com.allan.velha.domain.service.impl.NeuralNetworkServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latência de {@link NeuralNetworkServiceImpl#predictNextMove(Game)} no início,
+ * no meio e no fim da partida.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PredictBenchmark {
+    /** Jogadas já feitas: tabuleiro vazio, meio e fim de partida. */
+    @Param({ "0", "3", "6" })
+    public int plies;
+
+    private GameMemory gameMemory;
+    private NeuralNetworkServiceImpl engine;
+    private Game game;
+
+    @Setup
+    public void setup() throws IOException {
+        System.setProperty("velha.memory.dir", Files.createTempDirectory("velha-bench").toString());
+        gameMemory = new GameMemory();
+        engine = new NeuralNetworkServiceImpl(gameMemory, new Random(42));
+        game = Positions.classicGame(plies);
+    }
+
+    @TearDown
+    public void tearDown() {
+        gameMemory.close();
+    }
+
+    @Benchmark
+    public int[] predictNextMove() {
+        int[] move = engine.predictNextMove(game);
+        // Descarta o histórico da jogada, que cresceria a cada chamada no mesmo jogo
+        engine.registerGameResult(game);
+        return move;
+    }
+}
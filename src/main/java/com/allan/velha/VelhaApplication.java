@@ -1,6 +1,9 @@
 package com.allan.velha;
 
-import com.allan.velha.domain.service.impl.NeuralNetworkServiceImpl;
+import com.allan.velha.domain.model.Board;
+import com.allan.velha.domain.service.NeuralNetworkService;
+import com.allan.velha.domain.service.impl.DeferredServiceImpl;
+import com.allan.velha.domain.service.impl.NeuralNetworkServiceFactory;
 import com.allan.velha.presentation.controller.VelhaController;
 
 import javafx.application.Application;
@@ -10,20 +13,28 @@ import javafx.scene.Scene;
 import javafx.scene.image.Image;
 import javafx.stage.Stage;
 
+import java.lang.management.ManagementFactory;
 import java.util.Objects;
 
 public class VelhaApplication extends Application {
+    private NeuralNetworkService neuralNetworkService;
+    private VelhaController controller;
 
     @Override
     public void start(Stage stage) throws Exception {
         FXMLLoader loader = new FXMLLoader(
                 getClass().getResource("/com/allan/velha/presentation/view/Velha-view.fxml"));
 
-        // Criar serviços
-        NeuralNetworkServiceImpl neuralNetworkService = new NeuralNetworkServiceImpl();
+        int boardSize = Integer.getInteger("velha.board.size", Board.DEFAULT_SIZE);
+        int winLength = Integer.getInteger("velha.board.winLength", Math.min(boardSize, 5));
+
+        // Criar serviços; a IA carrega em segundo plano enquanto a janela abre
+        neuralNetworkService = new DeferredServiceImpl(
+                System.getProperty("velha.engine", NeuralNetworkServiceFactory.DEFAULT_ENGINE),
+                boardSize, winLength, Long.getLong("velha.warmupMs", 300L));
 
         // Criar e injetar o controller
-        VelhaController controller = new VelhaController(neuralNetworkService);
+        controller = new VelhaController(neuralNetworkService, boardSize, winLength);
         loader.setController(controller);
 
         Parent root = loader.load();
@@ -33,6 +44,18 @@ public class VelhaApplication extends Application {
         stage.setScene(scene);
         stage.setResizable(false);
         stage.show();
+        System.out.printf("Janela exibida em %d ms desde o início%n", ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+
+    @Override
+    public void stop() {
+        if (controller != null) {
+            controller.shutdown();
+        }
+        // Última gravação do aprendizado enfileirado
+        if (neuralNetworkService != null) {
+            neuralNetworkService.close();
+        }
     }
 
     public static void main(String[] args) {
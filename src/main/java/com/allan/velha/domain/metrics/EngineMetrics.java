@@ -0,0 +1,213 @@
+package com.allan.velha.domain.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Métricas da IA heurística e da memória de jogadas: latência de cada etapa de
+ * {@code predictNextMove}, qual etapa decidiu a jogada, consultas à memória
+ * que encontraram ou não uma jogada perdedora, número de entradas e gravações
+ * em disco (duração e bytes).
+ * <p>
+ * Ligadas pela propriedade de sistema {@code velha.metrics}. Desligadas, todos
+ * os pontos de medição ficam atrás de {@link #ENABLED}, uma constante que o JIT
+ * usa para eliminar o código de medição. Ligadas, as métricas são publicadas no
+ * JMX como {@value #OBJECT_NAME} e {@link #snapshot()} produz um resumo em texto.
+ */
+public final class EngineMetrics implements EngineMetricsMXBean {
+    public static final boolean ENABLED = Boolean.getBoolean("velha.metrics");
+    public static final String OBJECT_NAME = "com.allan.velha:type=EngineMetrics";
+
+    /**
+     * Etapas de {@code predictNextMove} da IA heurística, na ordem em que rodam.
+     */
+    public enum Stage {
+        WIN_CHECK, BLOCK_CHECK, MEMORY_FILTER, HOT_SPOT, RANDOM
+    }
+
+    private static final EngineMetrics INSTANCE = new EngineMetrics();
+
+    private final LatencyHistogram[] stageLatency = new LatencyHistogram[Stage.values().length];
+    private final LongAdder[] decisions = new LongAdder[Stage.values().length];
+    private final LatencyHistogram predictLatency = new LatencyHistogram();
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder memoryMisses = new LongAdder();
+    private final LatencyHistogram saveLatency = new LatencyHistogram();
+    private final LongAdder saveBytes = new LongAdder();
+    private volatile IntSupplier memoryEntries = () -> 0;
+    private volatile LongSupplier memoryEvictions = () -> 0;
+
+    private EngineMetrics() {
+        for (int i = 0; i < stageLatency.length; i++) {
+            stageLatency[i] = new LatencyHistogram();
+            decisions[i] = new LongAdder();
+        }
+        if (ENABLED) {
+            register();
+        }
+    }
+
+    public static EngineMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registra o fim de uma etapa.
+     *
+     * @param stageStart {@link System#nanoTime()} do início da etapa
+     * @return {@link System#nanoTime()} atual, início da próxima etapa
+     */
+    public long stageDone(Stage stage, long stageStart) {
+        long now = System.nanoTime();
+        stageLatency[stage.ordinal()].record(now - stageStart);
+        return now;
+    }
+
+    /**
+     * Registra a etapa que escolheu a jogada e a duração total da escolha.
+     */
+    public void decided(Stage stage, long predictStart) {
+        decisions[stage.ordinal()].increment();
+        predictLatency.record(System.nanoTime() - predictStart);
+    }
+
+    public void memoryLookup(boolean hit) {
+        (hit ? memoryHits : memoryMisses).increment();
+    }
+
+    public void saved(long nanos, long bytes) {
+        saveLatency.record(nanos);
+        saveBytes.add(bytes);
+    }
+
+    /**
+     * Define como contar as entradas da memória de jogadas, lidas só quando as
+     * métricas são consultadas.
+     */
+    public void setMemoryEntries(IntSupplier memoryEntries) {
+        this.memoryEntries = memoryEntries;
+    }
+
+    /**
+     * Define como contar as jogadas removidas da memória por falta de espaço.
+     */
+    public void setMemoryEvictions(LongSupplier memoryEvictions) {
+        this.memoryEvictions = memoryEvictions;
+    }
+
+    @Override
+    public long getPredictions() {
+        return predictLatency.count();
+    }
+
+    @Override
+    public Map<String, Long> getDecisions() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Stage stage : Stage.values()) {
+            result.put(stage.name(), decisions[stage.ordinal()].sum());
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getStageLatencyP50Nanos() {
+        return stagePercentiles(50);
+    }
+
+    @Override
+    public Map<String, Long> getStageLatencyP99Nanos() {
+        return stagePercentiles(99);
+    }
+
+    @Override
+    public long getMemoryHits() {
+        return memoryHits.sum();
+    }
+
+    @Override
+    public long getMemoryMisses() {
+        return memoryMisses.sum();
+    }
+
+    @Override
+    public int getMemoryEntries() {
+        return memoryEntries.getAsInt();
+    }
+
+    @Override
+    public long getMemoryEvictions() {
+        return memoryEvictions.getAsLong();
+    }
+
+    @Override
+    public long getSaves() {
+        return saveLatency.count();
+    }
+
+    @Override
+    public long getSaveBytes() {
+        return saveBytes.sum();
+    }
+
+    @Override
+    public long getSaveLatencyP99Nanos() {
+        return saveLatency.percentileNanos(99);
+    }
+
+    @Override
+    public String snapshot() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("Jogadas escolhidas: %d (%s)%n", getPredictions(), predictLatency.toMicrosString()));
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram latency = stageLatency[stage.ordinal()];
+            text.append(String.format("  %-13s %10d execuções | %10d decisões | %s%n", stage, latency.count(),
+                    decisions[stage.ordinal()].sum(), latency.toMicrosString()));
+        }
+        long lookups = getMemoryHits() + getMemoryMisses();
+        text.append(String.format("Memória: %d entradas | %d removidas | %d consultas | %.1f%% perdedoras%n",
+                getMemoryEntries(), getMemoryEvictions(), lookups, lookups == 0 ? 0 : getMemoryHits() * 100.0 / lookups));
+        text.append(String.format("Gravações: %d | %d bytes | %s", getSaves(), getSaveBytes(), saveLatency));
+        return text.toString();
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < stageLatency.length; i++) {
+            stageLatency[i].reset();
+            decisions[i].reset();
+        }
+        predictLatency.reset();
+        memoryHits.reset();
+        memoryMisses.reset();
+        saveLatency.reset();
+        saveBytes.reset();
+    }
+
+    private Map<String, Long> stagePercentiles(double percentile) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Stage stage : Stage.values()) {
+            result.put(stage.name(), stageLatency[stage.ordinal()].percentileNanos(percentile));
+        }
+        return result;
+    }
+
+    private void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            System.err.println("Erro ao registrar as métricas no JMX: " + e.getMessage());
+        }
+    }
+}
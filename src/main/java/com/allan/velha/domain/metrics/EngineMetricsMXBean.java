@@ -0,0 +1,63 @@
+package com.allan.velha.domain.metrics;
+
+import java.util.Map;
+
+/**
+ * Interface JMX de {@link EngineMetrics}. As latências são percentis em
+ * nanossegundos, com erro relativo de até 1/16.
+ */
+public interface EngineMetricsMXBean {
+
+    /**
+     * @return Jogadas escolhidas pela IA heurística
+     */
+    long getPredictions();
+
+    /**
+     * @return Jogadas decididas por etapa
+     */
+    Map<String, Long> getDecisions();
+
+    Map<String, Long> getStageLatencyP50Nanos();
+
+    Map<String, Long> getStageLatencyP99Nanos();
+
+    /**
+     * @return Consultas à memória que encontraram uma jogada perdedora
+     */
+    long getMemoryHits();
+
+    /**
+     * @return Consultas à memória sem jogada perdedora registrada
+     */
+    long getMemoryMisses();
+
+    /**
+     * @return Jogadas perdedoras na memória (células por posição canônica)
+     */
+    int getMemoryEntries();
+
+    /**
+     * @return Jogadas removidas da memória por falta de espaço
+     */
+    long getMemoryEvictions();
+
+    /**
+     * @return Gravações da memória em disco (lotes do journal e snapshots)
+     */
+    long getSaves();
+
+    long getSaveBytes();
+
+    long getSaveLatencyP99Nanos();
+
+    /**
+     * @return Resumo de todas as métricas em texto
+     */
+    String snapshot();
+
+    /**
+     * Zera as métricas.
+     */
+    void reset();
+}
@@ -0,0 +1,110 @@
+package com.allan.velha.domain.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latências em nanossegundos, seguro para várias threads e sem
+ * travas. Os intervalos são logarítmicos com 16 subdivisões por potência de 2,
+ * então os percentis têm erro relativo de no máximo 1/16.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKETS = 16;
+    private static final int BUCKETS = (64 - 3) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    public LatencyHistogram() {
+    }
+
+    /**
+     * Registra uma medida.
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(bucket(Math.max(0, nanos)));
+    }
+
+    /**
+     * @return Número de medidas registradas
+     */
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * @param percentile Percentil entre 0 e 100
+     * @return Limite superior, em microssegundos, do intervalo que contém o percentil
+     */
+    public long percentileMicros(double percentile) {
+        return percentileNanos(percentile) / 1000;
+    }
+
+    /**
+     * @param percentile Percentil entre 0 e 100
+     * @return Limite superior, em nanossegundos, do intervalo que contém o percentil
+     */
+    public long percentileNanos(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= Math.max(1, rank)) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    /**
+     * Zera as medidas.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("p50 %.2f ms | p99 %.2f ms | p99.9 %.2f ms", percentileNanos(50) / 1e6,
+                percentileNanos(99) / 1e6, percentileNanos(99.9) / 1e6);
+    }
+
+    /**
+     * @return Percentis em microssegundos, para latências abaixo de um milissegundo
+     */
+    public String toMicrosString() {
+        return String.format("p50 %.2f µs | p99 %.2f µs | p99.9 %.2f µs", percentileNanos(50) / 1e3,
+                percentileNanos(99) / 1e3, percentileNanos(99.9) / 1e3);
+    }
+
+    private static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (exponent - 4)) & (SUB_BUCKETS - 1);
+        return (exponent - 3) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + 3;
+        long sub = bucket % SUB_BUCKETS;
+        return ((SUB_BUCKETS + sub + 1) << (exponent - 4)) - 1;
+    }
+}
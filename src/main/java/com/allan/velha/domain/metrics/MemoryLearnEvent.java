@@ -0,0 +1,30 @@
+package com.allan.velha.domain.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento do JDK Flight Recorder para cada jogada perdedora registrada na memória.
+ */
+@Name("com.allan.velha.MemoryLearn")
+@Label("Jogada perdedora registrada")
+@Category({ "Velha", "Memória" })
+@StackTrace(false)
+public final class MemoryLearnEvent extends Event {
+    @Label("Posição canônica")
+    public int position;
+
+    @Label("Casa canônica")
+    public int cell;
+
+    @Label("Nova")
+    @Description("false se a jogada já estava na memória")
+    public boolean added;
+
+    public MemoryLearnEvent() {
+    }
+}
@@ -0,0 +1,32 @@
+package com.allan.velha.domain.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento do JDK Flight Recorder para cada consulta à memória de jogadas.
+ * Desligado por padrão, pois ocorre várias vezes por jogada; ligue com
+ * {@code jfr configure} ou em um arquivo {@code .jfc}.
+ */
+@Name("com.allan.velha.MemoryLookup")
+@Label("Consulta à memória")
+@Category({ "Velha", "Memória" })
+@Enabled(false)
+@StackTrace(false)
+public final class MemoryLookupEvent extends Event {
+    @Label("Posição canônica")
+    public int position;
+
+    @Label("Casa canônica")
+    public int cell;
+
+    @Label("Perdedora")
+    public boolean losing;
+
+    public MemoryLookupEvent() {
+    }
+}
@@ -0,0 +1,43 @@
+package com.allan.velha.domain.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento do JDK Flight Recorder para a carga e as gravações da memória de
+ * jogadas em disco, com a duração e os bytes lidos ou gravados.
+ */
+@Name("com.allan.velha.MemoryPersist")
+@Label("Persistência da memória")
+@Category({ "Velha", "Memória" })
+public final class MemoryPersistEvent extends Event {
+    public static final String LOAD = "LOAD";
+    public static final String FLUSH = "FLUSH";
+    public static final String SNAPSHOT = "SNAPSHOT";
+
+    @Label("Operação")
+    @Description("LOAD, FLUSH (lote do journal) ou SNAPSHOT (compactação)")
+    public String operation;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+    public MemoryPersistEvent() {
+    }
+
+    /**
+     * Encerra e grava o evento iniciado com {@link #begin()}, se a gravação estiver ativa.
+     */
+    public static void commit(MemoryPersistEvent event, String operation, long bytes) {
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+}
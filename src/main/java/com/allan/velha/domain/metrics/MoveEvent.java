@@ -0,0 +1,35 @@
+package com.allan.velha.domain.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento do JDK Flight Recorder para cada jogada aplicada em uma partida.
+ */
+@Name("com.allan.velha.Move")
+@Label("Jogada")
+@Category({ "Velha", "Partida" })
+@Description("Jogada aplicada por Game.makeMove")
+@StackTrace(false)
+public final class MoveEvent extends Event {
+    @Label("Casa")
+    @Description("linha * tamanho + coluna")
+    public int cell;
+
+    @Label("Jogada número")
+    public int ply;
+
+    @Label("Símbolo")
+    public char symbol;
+
+    @Label("Resultado")
+    @Description("Vencedor (X ou O), DRAW para empate ou vazio se a partida continua")
+    public String outcome;
+
+    public MoveEvent() {
+    }
+}
@@ -0,0 +1,45 @@
+package com.allan.velha.domain.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento do JDK Flight Recorder para cada jogada escolhida por uma IA, com a
+ * duração da escolha.
+ */
+@Name("com.allan.velha.Prediction")
+@Label("Jogada da IA")
+@Category({ "Velha", "IA" })
+@Description("Escolha de uma jogada por NeuralNetworkService")
+@StackTrace(false)
+public final class PredictionEvent extends Event {
+    @Label("IA")
+    public String engine;
+
+    @Label("Casa")
+    @Description("linha * tamanho + coluna, ou -1 se não houve jogada")
+    public int cell;
+
+    @Label("Etapa")
+    @Description("Etapa ou mecanismo que decidiu a jogada")
+    public String stage;
+
+    public PredictionEvent() {
+    }
+
+    /**
+     * Encerra e grava o evento iniciado com {@link #begin()}, se a gravação estiver ativa.
+     */
+    public static void commit(PredictionEvent event, String engine, int cell, String stage) {
+        if (event.shouldCommit()) {
+            event.engine = engine;
+            event.cell = cell;
+            event.stage = stage;
+            event.commit();
+        }
+    }
+}
@@ -1,80 +1,237 @@
 package com.allan.velha.domain.model;
 
+/**
+ * Tabuleiro N x N em que vence quem alinhar {@code winLength} símbolos.
+ * Cada jogador é representado por um bitboard, onde o bit {@code row * size + col}
+ * indica que a célula está ocupada por ele.
+ * <p>
+ * No tabuleiro clássico 3x3 a vitória é testada contra as oito máscaras de linha
+ * pré-calculadas; nos demais, apenas a partir da última jogada, percorrendo as
+ * quatro direções em O(winLength).
+ */
 public class Board {
-    private static final int SIZE = 3;
-    private final char[][] board;
+    public static final int DEFAULT_SIZE = 3;
+    private static final int CLASSIC_FULL_MASK = 0x1FF;
+    private static final int[] WIN_MASKS = {
+            0b000_000_111, 0b000_111_000, 0b111_000_000, // linhas
+            0b001_001_001, 0b010_010_010, 0b100_100_100, // colunas
+            0b100_010_001, 0b001_010_100 // diagonais
+    };
+    /** Direções (linha, coluna): horizontal, vertical e as duas diagonais. */
+    private static final int[][] DIRECTIONS = { { 0, 1 }, { 1, 0 }, { 1, 1 }, { 1, -1 } };
+
+    private final int size;
+    private final int winLength;
+    private final boolean classic;
+    private final long[] xBits;
+    private final long[] oBits;
+    private int moveCount;
+    private int lastCell;
+    private char lastSymbol;
 
     public Board() {
-        board = new char[SIZE][SIZE];
+        this(DEFAULT_SIZE, DEFAULT_SIZE);
+    }
+
+    /**
+     * @param size      Número de linhas e colunas
+     * @param winLength Símbolos alinhados necessários para vencer
+     */
+    public Board(int size, int winLength) {
+        if (size < 1 || winLength < 1 || winLength > size) {
+            throw new IllegalArgumentException(
+                    "Tabuleiro inválido: tamanho " + size + ", sequência " + winLength);
+        }
+        this.size = size;
+        this.winLength = winLength;
+        this.classic = size == DEFAULT_SIZE && winLength == DEFAULT_SIZE;
+        int words = (size * size + Long.SIZE - 1) / Long.SIZE;
+        this.xBits = new long[words];
+        this.oBits = new long[words];
         clear();
     }
 
     public void clear() {
-        for (int i = 0; i < SIZE; i++) {
-            for (int j = 0; j < SIZE; j++) {
-                board[i][j] = ' ';
-            }
+        for (int i = 0; i < xBits.length; i++) {
+            xBits[i] = 0;
+            oBits[i] = 0;
         }
+        moveCount = 0;
+        lastCell = -1;
+        lastSymbol = ' ';
     }
 
     public boolean isValidMove(int row, int col) {
-        return row >= 0 && row < SIZE && col >= 0 && col < SIZE && board[row][col] == ' ';
+        return row >= 0 && row < size && col >= 0 && col < size && !isOccupied(row * size + col);
     }
 
     public void makeMove(int row, int col, char symbol) {
-        if (isValidMove(row, col)) {
-            board[row][col] = symbol;
+        if (isValidMove(row, col) && (symbol == 'X' || symbol == 'O')) {
+            int cell = row * size + col;
+            long[] bits = symbol == 'X' ? xBits : oBits;
+            bits[cell >>> 6] |= 1L << cell;
+            moveCount++;
+            lastCell = cell;
+            lastSymbol = symbol;
+        }
+    }
+
+    /**
+     * Desfaz a jogada da célula, deixando-a vazia.
+     */
+    public void undoMove(int row, int col) {
+        int cell = row * size + col;
+        if (row >= 0 && row < size && col >= 0 && col < size && isOccupied(cell)) {
+            xBits[cell >>> 6] &= ~(1L << cell);
+            oBits[cell >>> 6] &= ~(1L << cell);
+            moveCount--;
+            // A jogada anterior não é conhecida aqui: checkWin volta a varrer o tabuleiro
+            lastCell = -1;
+            lastSymbol = ' ';
         }
     }
 
     public boolean checkWin(char symbol) {
-        // Verificar linhas
-        for (int i = 0; i < SIZE; i++) {
-            if (board[i][0] == symbol &&
-                    board[i][1] == symbol &&
-                    board[i][2] == symbol) {
+        if (classic) {
+            return isWinningMask(getMask(symbol));
+        }
+        // Só a última jogada pode ter completado uma sequência
+        if (symbol == lastSymbol) {
+            return isWinningMove(lastCell / size, lastCell % size, symbol);
+        }
+        return hasAnySequence(symbol);
+    }
+
+    /**
+     * Verifica se o símbolo na célula (já jogado ou hipotético) completa uma
+     * sequência vencedora, sem alterar o tabuleiro.
+     */
+    public boolean isWinningMove(int row, int col, char symbol) {
+        if (classic) {
+            return isWinningMask(getMask(symbol) | 1 << (row * size + col));
+        }
+        long[] bits = symbol == 'X' ? xBits : oBits;
+        for (int[] direction : DIRECTIONS) {
+            int count = 1 + countFrom(bits, row, col, direction[0], direction[1])
+                    + countFrom(bits, row, col, -direction[0], -direction[1]);
+            if (count >= winLength) {
                 return true;
             }
         }
+        return false;
+    }
 
-        // Verificar colunas
-        for (int j = 0; j < SIZE; j++) {
-            if (board[0][j] == symbol &&
-                    board[1][j] == symbol &&
-                    board[2][j] == symbol) {
-                return true;
+    public boolean isFull() {
+        return moveCount == size * size;
+    }
+
+    /**
+     * Retorna uma cópia do tabuleiro como matriz de caracteres.
+     * Para leituras frequentes prefira {@link #getCell(int, int)}, que não aloca.
+     */
+    public char[][] getState() {
+        char[][] state = new char[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                state[i][j] = getCell(i, j);
             }
         }
+        return state;
+    }
+
+    /**
+     * @return Símbolo da célula ('X', 'O' ou ' ' quando vazia)
+     */
+    public char getCell(int row, int col) {
+        int cell = row * size + col;
+        if (isSet(xBits, cell)) {
+            return 'X';
+        }
+        return isSet(oBits, cell) ? 'O' : ' ';
+    }
 
-        // Verificar diagonal principal
-        if (board[0][0] == symbol &&
-                board[1][1] == symbol &&
-                board[2][2] == symbol) {
-            return true;
+    /**
+     * Máscara das células ocupadas pelo símbolo, válida para tabuleiros 3x3.
+     *
+     * @return Máscara de 9 bits com as células ocupadas pelo símbolo
+     */
+    public int getMask(char symbol) {
+        if (symbol == 'X') {
+            return (int) xBits[0];
         }
+        return symbol == 'O' ? (int) oBits[0] : 0;
+    }
 
-        // Verificar diagonal secundária
-        return board[0][2] == symbol &&
-                board[1][1] == symbol &&
-                board[2][0] == symbol;
+    /**
+     * Máscara das células vazias, válida para tabuleiros 3x3.
+     *
+     * @return Máscara de 9 bits com as células vazias
+     */
+    public int getEmptyMask() {
+        return ~(int) (xBits[0] | oBits[0]) & CLASSIC_FULL_MASK;
     }
 
-    public boolean isFull() {
-        for (int i = 0; i < SIZE; i++) {
-            for (int j = 0; j < SIZE; j++) {
-                if (board[i][j] == ' ') {
-                    return false;
-                }
+    public int getSize() {
+        return size;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    /**
+     * @return Número de jogadas feitas
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * @return true para o tabuleiro clássico 3x3 com sequência de 3
+     */
+    public boolean isClassic() {
+        return classic;
+    }
+
+    /**
+     * Verifica se uma máscara de células 3x3 contém alguma linha, coluna ou diagonal completa.
+     */
+    public static boolean isWinningMask(int mask) {
+        for (int winMask : WIN_MASKS) {
+            if ((mask & winMask) == winMask) {
+                return true;
             }
         }
-        return true;
+        return false;
     }
 
-    public char[][] getState() {
-        char[][] state = new char[SIZE][SIZE];
-        for (int i = 0; i < SIZE; i++) {
-            System.arraycopy(board[i], 0, state[i], 0, SIZE);
+    private int countFrom(long[] bits, int row, int col, int dRow, int dCol) {
+        int count = 0;
+        int r = row + dRow;
+        int c = col + dCol;
+        while (count < winLength - 1 && r >= 0 && r < size && c >= 0 && c < size && isSet(bits, r * size + c)) {
+            count++;
+            r += dRow;
+            c += dCol;
         }
-        return state;
+        return count;
+    }
+
+    private boolean hasAnySequence(char symbol) {
+        long[] bits = symbol == 'X' ? xBits : oBits;
+        for (int cell = 0; cell < size * size; cell++) {
+            if (isSet(bits, cell) && isWinningMove(cell / size, cell % size, symbol)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isOccupied(int cell) {
+        return isSet(xBits, cell) || isSet(oBits, cell);
+    }
+
+    private static boolean isSet(long[] bits, int cell) {
+        return (bits[cell >>> 6] & 1L << cell) != 0;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,183 @@
+package com.allan.velha.domain.model;
+
+/**
+ * Forma canônica de posições 3x3 sob as 8 simetrias do tabuleiro (grupo D4).
+ * Uma posição é codificada como inteiro em base 3 (0 = vazio, 1 = X, 2 = O,
+ * célula {@code row * 3 + col} como dígito de peso 3^cell). A forma canônica é
+ * o menor índice entre as 8 imagens da posição.
+ * <p>
+ * As chaves retornadas por {@link #canonicalKey(int, int)} empacotam o índice
+ * canônico e a simetria que leva a posição original até ele, permitindo
+ * mapear jogadas para o referencial canônico sem alocar.
+ */
+public final class BoardSymmetry {
+    public static final int CELLS = 9;
+    public static final int POSITIONS = 19683; // 3^9
+    public static final int SYMMETRIES = 8;
+
+    /** PERMUTATIONS[s][cell] = célula de destino de {@code cell} pela simetria s. */
+    private static final int[][] PERMUTATIONS = new int[SYMMETRIES][CELLS];
+    /** INVERSES[s][cell] = célula de origem que a simetria s leva até {@code cell}. */
+    private static final int[][] INVERSES = new int[SYMMETRIES][CELLS];
+    /** WEIGHTS[s][cell] = 3^PERMUTATIONS[s][cell]. */
+    private static final int[][] WEIGHTS = new int[SYMMETRIES][CELLS];
+
+    static {
+        for (int cell = 0; cell < CELLS; cell++) {
+            int r = cell / 3;
+            int c = cell % 3;
+            PERMUTATIONS[0][cell] = r * 3 + c; // identidade
+            PERMUTATIONS[1][cell] = c * 3 + (2 - r); // rotação 90°
+            PERMUTATIONS[2][cell] = (2 - r) * 3 + (2 - c); // rotação 180°
+            PERMUTATIONS[3][cell] = (2 - c) * 3 + r; // rotação 270°
+            PERMUTATIONS[4][cell] = (2 - r) * 3 + c; // reflexão horizontal
+            PERMUTATIONS[5][cell] = r * 3 + (2 - c); // reflexão vertical
+            PERMUTATIONS[6][cell] = c * 3 + r; // diagonal principal
+            PERMUTATIONS[7][cell] = (2 - c) * 3 + (2 - r); // diagonal secundária
+        }
+        for (int s = 0; s < SYMMETRIES; s++) {
+            for (int cell = 0; cell < CELLS; cell++) {
+                INVERSES[s][PERMUTATIONS[s][cell]] = cell;
+                int weight = 1;
+                for (int k = 0; k < PERMUTATIONS[s][cell]; k++) {
+                    weight *= 3;
+                }
+                WEIGHTS[s][cell] = weight;
+            }
+        }
+    }
+
+    private BoardSymmetry() {
+    }
+
+    /**
+     * Calcula a chave canônica de uma posição.
+     *
+     * @param xMask Máscara de 9 bits das células de X
+     * @param oMask Máscara de 9 bits das células de O
+     * @return {@code (índiceCanônico << 3) | simetria}
+     */
+    public static int canonicalKey(int xMask, int oMask) {
+        int best = Integer.MAX_VALUE;
+        int bestSymmetry = 0;
+        for (int s = 0; s < SYMMETRIES; s++) {
+            int index = index(s, xMask, oMask);
+            if (index < best) {
+                best = index;
+                bestSymmetry = s;
+            }
+        }
+        return (best << 3) | bestSymmetry;
+    }
+
+    /**
+     * Calcula todas as simetrias que levam a posição ao seu índice canônico.
+     * Posições simétricas (como o tabuleiro vazio) possuem mais de uma, e jogadas
+     * equivalentes entre si precisam ser registradas em todas elas.
+     *
+     * @return Máscara de 8 bits, um por simetria
+     */
+    public static int canonicalSymmetries(int xMask, int oMask) {
+        int best = Integer.MAX_VALUE;
+        int symmetries = 0;
+        for (int s = 0; s < SYMMETRIES; s++) {
+            int index = index(s, xMask, oMask);
+            if (index < best) {
+                best = index;
+                symmetries = 1 << s;
+            } else if (index == best) {
+                symmetries |= 1 << s;
+            }
+        }
+        return symmetries;
+    }
+
+    /**
+     * @return Índice canônico (0 a {@link #POSITIONS} - 1) contido na chave
+     */
+    public static int positionOf(int key) {
+        return key >>> 3;
+    }
+
+    /**
+     * Decodifica um índice de posição de volta em máscara de células.
+     *
+     * @param position Índice (0 a {@link #POSITIONS} - 1) no referencial da própria posição
+     * @param symbol   'X' ou 'O'
+     * @return Máscara de 9 bits das células com o símbolo
+     */
+    public static int maskOf(int position, char symbol) {
+        int digit = symbol == 'X' ? 1 : 2;
+        int mask = 0;
+        for (int cell = 0; cell < CELLS; cell++, position /= 3) {
+            if (position % 3 == digit) {
+                mask |= 1 << cell;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * @return Simetria contida na chave
+     */
+    public static int symmetryOf(int key) {
+        return key & 7;
+    }
+
+    /**
+     * Mapeia uma célula para o referencial transformado pela simetria.
+     */
+    public static int transformCell(int symmetry, int cell) {
+        return PERMUTATIONS[symmetry][cell];
+    }
+
+    /**
+     * Mapeia uma célula do referencial transformado de volta ao original.
+     */
+    public static int inverseTransformCell(int symmetry, int cell) {
+        return INVERSES[symmetry][cell];
+    }
+
+    /**
+     * Aplica a simetria a uma máscara de células.
+     */
+    public static int transformMask(int symmetry, int mask) {
+        int[] permutation = PERMUTATIONS[symmetry];
+        int transformed = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            if ((mask & (1 << cell)) != 0) {
+                transformed |= 1 << permutation[cell];
+            }
+        }
+        return transformed;
+    }
+
+    private static int index(int symmetry, int xMask, int oMask) {
+        int[] weights = WEIGHTS[symmetry];
+        int index = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            int bit = 1 << cell;
+            if ((xMask & bit) != 0) {
+                index += weights[cell];
+            } else if ((oMask & bit) != 0) {
+                index += 2 * weights[cell];
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Converte uma matriz 3x3 na máscara de bits das células com o símbolo.
+     */
+    public static int mask(char[][] board, char symbol) {
+        int mask = 0;
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                if (board[i][j] == symbol) {
+                    mask |= 1 << (i * 3 + j);
+                }
+            }
+        }
+        return mask;
+    }
+}
@@ -1,8 +1,19 @@
 package com.allan.velha.domain.model;
 
-import java.util.ArrayList;
-import java.util.List;
+import com.allan.velha.domain.metrics.MoveEvent;
 
+import java.util.Arrays;
+
+/**
+ * Partida entre dois jogadores.
+ * <p>
+ * O histórico é uma {@link MoveHistory} com a célula de cada jogada; os
+ * estados anteriores são reconstruídos sob demanda. Desfazer, refazer e
+ * {@link #replayTo(int)} aplicam ou removem jogadas no tabuleiro, sem cópias.
+ * Uma nova jogada depois de desfazer descarta as jogadas que podiam ser refeitas.
+ * O placar dos jogadores conta o resultado uma única vez por partida, na
+ * primeira jogada que a encerra; desfazer e refazer não o alteram.
+ */
 public class Game {
     private final Board board;
     private final Player playerX;
@@ -10,51 +21,210 @@ public class Game {
     private Player currentPlayer;
     private boolean isGameOver;
     private Player winner;
-    private final List<char[][]> gameStates;
-    private final List<int[]> gameMoves;
+    private final MoveHistory history;
+    private int ply;
+    private char firstSymbol;
+    /** O placar dos jogadores já contou o resultado desta partida. */
+    private boolean resultCounted;
 
     public Game(Player playerX, Player playerO) {
-        this.board = new Board();
+        this(playerX, playerO, Board.DEFAULT_SIZE, Board.DEFAULT_SIZE);
+    }
+
+    /**
+     * Cria um jogo em um tabuleiro de tamanho e sequência vencedora configuráveis.
+     *
+     * @param size      Número de linhas e colunas do tabuleiro
+     * @param winLength Símbolos alinhados necessários para vencer
+     */
+    public Game(Player playerX, Player playerO, int size, int winLength) {
+        this.board = new Board(size, winLength);
         this.playerX = playerX;
         this.playerO = playerO;
         this.currentPlayer = playerX; // Primeiro jogador começa
         this.isGameOver = false;
         this.winner = null;
-        this.gameStates = new ArrayList<>();
-        this.gameMoves = new ArrayList<>();
-        saveGameState();
+        this.history = new MoveHistory(size * size);
     }
 
     public void makeMove(int row, int col) {
         if (isGameOver || !board.isValidMove(row, col)) {
             return;
         }
+        history.truncate(ply);
+        if (ply == 0) {
+            firstSymbol = getCurrentSymbol();
+        }
+        history.add(row * board.getSize() + col);
+        applyMove(row, col);
+        if (isGameOver && !resultCounted) {
+            // Só a primeira jogada que encerra a partida conta no placar;
+            // refazer a jogada final não conta o resultado de novo
+            resultCounted = true;
+            countResult();
+        }
+
+        MoveEvent event = new MoveEvent();
+        if (event.shouldCommit()) {
+            event.cell = row * board.getSize() + col;
+            event.ply = ply;
+            event.symbol = symbolAt(ply - 1);
+            event.outcome = !isGameOver ? "" : winner == null ? "DRAW" : winner == playerX ? "X" : "O";
+            event.commit();
+        }
+    }
+
+    /**
+     * Desfaz a última jogada aplicada.
+     *
+     * @return false se não há jogada para desfazer
+     */
+    public boolean undo() {
+        if (ply == 0) {
+            return false;
+        }
+        int cell = history.get(--ply);
+        board.undoMove(cell / board.getSize(), cell % board.getSize());
+        // Nenhuma posição anterior à última jogada é final
+        isGameOver = false;
+        winner = null;
+        currentPlayer = playerOf(symbolAt(ply));
+        return true;
+    }
+
+    /**
+     * Refaz a próxima jogada desfeita.
+     *
+     * @return false se não há jogada para refazer
+     */
+    public boolean redo() {
+        if (ply == history.size()) {
+            return false;
+        }
+        int cell = history.get(ply);
+        applyMove(cell / board.getSize(), cell % board.getSize());
+        return true;
+    }
+
+    /**
+     * Desfaz ou refaz jogadas até que {@code targetPly} jogadas estejam aplicadas.
+     *
+     * @param targetPly Número de jogadas, de 0 a {@link #getHistorySize()}
+     */
+    public void replayTo(int targetPly) {
+        if (targetPly < 0 || targetPly > history.size()) {
+            throw new IllegalArgumentException("Jogada inválida: " + targetPly);
+        }
+        while (ply > targetPly) {
+            undo();
+        }
+        while (ply < targetPly) {
+            redo();
+        }
+    }
+
+    public boolean canUndo() {
+        return ply > 0;
+    }
+
+    public boolean canRedo() {
+        return ply < history.size();
+    }
+
+    /**
+     * @return Número de jogadas aplicadas no tabuleiro
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * @return Número de jogadas registradas, incluindo as que podem ser refeitas
+     */
+    public int getHistorySize() {
+        return history.size();
+    }
+
+    /**
+     * @return Linha e coluna da jogada de índice {@code index} do histórico
+     */
+    public int[] getMove(int index) {
+        int cell = history.get(index);
+        return new int[] { cell / board.getSize(), cell % board.getSize() };
+    }
+
+    /**
+     * @return Casa ({@code linha * tamanho + coluna}) da jogada de índice
+     *         {@code index} do histórico, sem alocar
+     */
+    public int getMoveCell(int index) {
+        return history.get(index);
+    }
+
+    /**
+     * @return Símbolo de quem fez a jogada de índice {@code index} do histórico
+     */
+    public char getMoveSymbol(int index) {
+        history.get(index); // valida o índice
+        return symbolAt(index);
+    }
+
+    /**
+     * Reconstrói o tabuleiro após as primeiras {@code targetPly} jogadas do histórico.
+     *
+     * @return Nova matriz com o estado, no formato de {@link Board#getState()}
+     */
+    public char[][] getStateAt(int targetPly) {
+        if (targetPly < 0 || targetPly > history.size()) {
+            throw new IllegalArgumentException("Jogada inválida: " + targetPly);
+        }
+        int size = board.getSize();
+        char[][] state = new char[size][size];
+        for (char[] row : state) {
+            Arrays.fill(row, ' ');
+        }
+        for (int i = 0; i < targetPly; i++) {
+            int cell = history.get(i);
+            state[cell / size][cell % size] = symbolAt(i);
+        }
+        return state;
+    }
 
-        char symbol = currentPlayer == playerX ? 'X' : 'O';
+    private void applyMove(int row, int col) {
+        char symbol = getCurrentSymbol();
         board.makeMove(row, col, symbol);
-        saveGameState();
-        saveMove(row, col);
+        ply++;
 
         if (board.checkWin(symbol)) {
             isGameOver = true;
             winner = currentPlayer;
-            currentPlayer.incrementWins();
-            (currentPlayer == playerX ? playerO : playerX).incrementLosses();
         } else if (board.isFull()) {
             isGameOver = true;
-            playerX.incrementDraws();
-            playerO.incrementDraws();
         } else {
             currentPlayer = (currentPlayer == playerX) ? playerO : playerX;
         }
     }
 
-    private void saveGameState() {
-        gameStates.add(board.getState());
+    private void countResult() {
+        if (winner != null) {
+            winner.incrementWins();
+            (winner == playerX ? playerO : playerX).incrementLosses();
+        } else {
+            playerX.incrementDraws();
+            playerO.incrementDraws();
+        }
+    }
+
+    /**
+     * Os jogadores alternam a partir de quem fez a primeira jogada.
+     */
+    private char symbolAt(int index) {
+        boolean first = (index & 1) == 0;
+        return first == (firstSymbol == 'X') ? 'X' : 'O';
     }
 
-    private void saveMove(int row, int col) {
-        gameMoves.add(new int[] { row, col });
+    private Player playerOf(char symbol) {
+        return symbol == 'X' ? playerX : playerO;
     }
 
     public Board getBoard() {
@@ -65,6 +235,13 @@ public class Game {
         return currentPlayer;
     }
 
+    /**
+     * @return Símbolo do jogador da vez ('X' ou 'O')
+     */
+    public char getCurrentSymbol() {
+        return currentPlayer == playerX ? 'X' : 'O';
+    }
+
     public boolean isGameOver() {
         return isGameOver;
     }
@@ -78,4 +255,4 @@ public class Game {
             this.currentPlayer = player;
         }
     }
-}
\ No newline at end of file
+}
@@ -1,149 +1,308 @@
 package com.allan.velha.domain.model;
 
+import com.allan.velha.domain.metrics.EngineMetrics;
+import com.allan.velha.domain.metrics.MemoryLearnEvent;
+import com.allan.velha.domain.metrics.MemoryLookupEvent;
+
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
  * Classe responsável por armazenar e gerenciar a memória de jogadas do jogo.
  * Mantém um registro das jogadas que levaram a derrotas para evitar repeti-las.
+ * As jogadas são mantidas por um {@link GameMemoryStore}, escolhido pela
+ * propriedade de sistema {@code velha.memory.backend}.
+ * <p>
+ * Jogadas enviadas por {@link #enqueueLosingMove(char[][], int, int)} são gravadas
+ * em lotes por uma thread em segundo plano ({@link GameMemoryWriter}), configurada
+ * por {@code velha.memory.batchSize} (padrão 256) e {@code velha.memory.flushMs}
+ * (padrão 1000). Até o lote ser gravado, as consultas ainda não as enxergam.
+ * <p>
+ * A memória é segura para uso concorrente: consultas não usam trava, novas
+ * células são marcadas por compare-and-set no armazenamento e todas as
+ * gravações em arquivo passam por um único ponto serializado. Várias IAs e
+ * partidas simultâneas devem compartilhar a instância de {@link #shared()},
+ * em vez de abrir o mesmo arquivo mais de uma vez.
+ * <p>
+ * Cada jogada (posição canônica e célula) é guardada uma única vez, então a
+ * memória nunca passa de um bit por célula de cada posição. Com
+ * {@code velha.memory.capacity} maior que zero, o número de jogadas é limitado
+ * e as de menor uso recente são removidas ({@link GameMemoryEviction}).
+ * <p>
+ * Com {@code velha.memory.nearMatch}, uma jogada também é considerada perdedora
+ * quando uma jogada registrada na mesma célula difere da posição consultada em
+ * até duas casas, com o mesmo número de peças ({@link GameMemoryNearIndex}).
  */
-public class GameMemory implements Serializable {
-    @Serial
-    private static final long serialVersionUID = 1L;
-    private static final String MEMORY_FILE = "src/main/resources/data/game_memory.dat";
-    private final Map<String, List<BoardState>> losingMoves;
+public class GameMemory implements AutoCloseable {
+    private static final String DEFAULT_MEMORY_DIR = "src/main/resources/data";
+    private static final String LEGACY_MEMORY_FILE = "game_memory.dat";
+
+    private static GameMemory shared;
+    private static int sharedReferences;
+
+    /**
+     * Índice das jogadas perdedoras no referencial canônico: para cada posição
+     * canônica, um bit por célula proibida.
+     */
+    private final GameMemoryStore store;
+    private final Path directory;
+    private final GameMemoryWriter writer;
+    /** Limite de jogadas, ou null sem limite. */
+    private final GameMemoryEviction eviction;
+    /** Índice de jogadas semelhantes, ou null com a busca exata. */
+    private final GameMemoryNearIndex nearIndex;
+
+    /**
+     * Retorna a memória compartilhada do processo, abrindo-a no primeiro uso.
+     * Cada chamada deve ter um {@link #close()} correspondente; a memória só é
+     * fechada de fato quando o último usuário a fecha.
+     */
+    public static synchronized GameMemory shared() {
+        if (shared == null) {
+            shared = new GameMemory();
+        }
+        sharedReferences++;
+        return shared;
+    }
 
     public GameMemory() {
-        this.losingMoves = loadMemory();
+        this.directory = Path.of(System.getProperty("velha.memory.dir", DEFAULT_MEMORY_DIR));
+        this.store = openStore();
+        this.writer = new GameMemoryWriter(this, Integer.getInteger("velha.memory.batchSize", 256),
+                Long.getLong("velha.memory.flushMs", 1000L));
+        int capacity = Integer.getInteger("velha.memory.capacity", 0);
+        this.eviction = capacity > 0 ? new GameMemoryEviction(capacity, store) : null;
+        this.nearIndex = Boolean.getBoolean("velha.memory.nearMatch") ? new GameMemoryNearIndex(store) : null;
+        if (store.isFresh() && Files.exists(directory.resolve(LEGACY_MEMORY_FILE))) {
+            importLegacyMemory();
+        }
+        if (eviction != null) {
+            eviction.evict(store, nearIndex);
+        }
+        if (EngineMetrics.ENABLED) {
+            EngineMetrics.get().setMemoryEntries(this::getEntryCount);
+            EngineMetrics.get().setMemoryEvictions(this::getEvictedCount);
+        }
     }
 
     /**
      * Adiciona uma jogada perdedora à memória.
+     * Apenas jogadas ainda desconhecidas são gravadas no armazenamento; as já
+     * conhecidas só ganham peso contra a remoção.
+     * Pode ser chamado por várias threads que compartilham a memória.
      * 
      * @param boardState Estado do tabuleiro
      * @param row        Linha da jogada
      * @param col        Coluna da jogada
      */
     public void addLosingMove(char[][] boardState, int row, int col) {
-        String key = getBoardKey(boardState);
-        losingMoves.computeIfAbsent(key, k -> new ArrayList<>())
-                .add(new BoardState(boardState, row, col));
-        saveMemory();
+        addLosingCells(BoardSymmetry.mask(boardState, 'X'), BoardSymmetry.mask(boardState, 'O'), row * 3 + col);
+        store.flush();
     }
 
     /**
-     * Verifica se uma jogada é perdedora baseado na memória.
-     * 
+     * Enfileira uma jogada perdedora para ser gravada no próximo lote, sem
+     * bloquear em I/O.
+     *
      * @param boardState Estado do tabuleiro
      * @param row        Linha da jogada
      * @param col        Coluna da jogada
-     * @return true se a jogada é perdedora
      */
-    public boolean isLosingMove(char[][] boardState, int row, int col) {
-        Set<String> keys = getAllBoardKeys(boardState);
-        for (String key : keys) {
-            List<BoardState> moves = losingMoves.get(key);
-            if (moves != null) {
-                for (BoardState move : moves) {
-                    if (move.isEquivalentMove(boardState, row, col)) {
-                        return true;
-                    }
-                }
-            }
+    public void enqueueLosingMove(char[][] boardState, int row, int col) {
+        writer.submit(pack(BoardSymmetry.mask(boardState, 'X'), BoardSymmetry.mask(boardState, 'O'), row * 3 + col));
+    }
+
+    /**
+     * Registra um lote de jogadas empacotadas e persiste o lote de uma só vez.
+     */
+    void addLosingMoves(int[] packedMoves, int count) {
+        for (int i = 0; i < count; i++) {
+            int packed = packedMoves[i];
+            addLosingCells(packed & 0x1FF, packed >>> 9 & 0x1FF, packed >>> 18);
         }
-        return false;
+        store.flush();
+    }
+
+    /**
+     * Empacota uma jogada em um inteiro: X nos bits 0-8, O nos bits 9-17 e a célula a partir do bit 18.
+     */
+    static int pack(int xMask, int oMask, int cell) {
+        return xMask | oMask << 9 | cell << 18;
     }
 
-    private Set<String> getAllBoardKeys(char[][] board) {
-        Set<String> keys = new HashSet<>();
-        char[][] currentBoard = board;
+    private void addLosingCells(int xMask, int oMask, int cell) {
+        int position = BoardSymmetry.positionOf(BoardSymmetry.canonicalKey(xMask, oMask));
+        int symmetries = BoardSymmetry.canonicalSymmetries(xMask, oMask);
+        boolean full = false;
 
-        // Rotações
-        for (int i = 0; i < 4; i++) {
-            keys.add(getBoardKey(currentBoard));
-            currentBoard = rotate90(currentBoard);
+        // Em posições simétricas, a jogada é registrada em todas as células equivalentes
+        for (int s = 0; s < BoardSymmetry.SYMMETRIES; s++) {
+            if ((symmetries & (1 << s)) != 0) {
+                MemoryLearnEvent event = new MemoryLearnEvent();
+                event.begin();
+                int canonicalCell = BoardSymmetry.transformCell(s, cell);
+                boolean added = store.addLosingCell(position, canonicalCell);
+                if (eviction != null) {
+                    full |= eviction.learned(position, canonicalCell, added);
+                }
+                if (added && nearIndex != null) {
+                    nearIndex.add(position, canonicalCell);
+                }
+                if (event.shouldCommit()) {
+                    event.position = position;
+                    event.cell = canonicalCell;
+                    event.added = added;
+                    event.commit();
+                }
+            }
+        }
+        if (full) {
+            eviction.evict(store, nearIndex);
         }
+    }
 
-        // Reflexões
-        currentBoard = flipHorizontal(board);
-        keys.add(getBoardKey(currentBoard));
-        currentBoard = flipVertical(board);
-        keys.add(getBoardKey(currentBoard));
+    /**
+     * Verifica se uma jogada é perdedora baseado na memória.
+     * A posição é reduzida à forma canônica, então qualquer uma das 8 simetrias
+     * de uma jogada registrada é reconhecida. Com {@code velha.memory.nearMatch},
+     * jogadas registradas em posições semelhantes também contam.
+     * 
+     * @param boardState Estado do tabuleiro
+     * @param row        Linha da jogada
+     * @param col        Coluna da jogada
+     * @return true se a jogada é perdedora
+     */
+    public boolean isLosingMove(char[][] boardState, int row, int col) {
+        return isLosingMove(BoardSymmetry.mask(boardState, 'X'), BoardSymmetry.mask(boardState, 'O'), row, col);
+    }
 
-        return keys;
+    /**
+     * Verifica se uma jogada é perdedora sem copiar o tabuleiro.
+     * 
+     * @param board Tabuleiro atual
+     * @param row   Linha da jogada
+     * @param col   Coluna da jogada
+     * @return true se a jogada é perdedora
+     */
+    public boolean isLosingMove(Board board, int row, int col) {
+        return isLosingMove(board.getMask('X'), board.getMask('O'), row, col);
     }
 
-    private char[][] rotate90(char[][] board) {
-        int n = board.length;
-        char[][] rotated = new char[n][n];
-        for (int i = 0; i < n; i++) {
-            for (int j = 0; j < n; j++) {
-                rotated[j][n - 1 - i] = board[i][j];
-            }
+    private boolean isLosingMove(int xMask, int oMask, int row, int col) {
+        int key = BoardSymmetry.canonicalKey(xMask, oMask);
+        int cell = BoardSymmetry.transformCell(BoardSymmetry.symmetryOf(key), row * 3 + col);
+        int position = BoardSymmetry.positionOf(key);
+        boolean losing = (store.losingCells(position) & (1 << cell)) != 0;
+        if (losing && eviction != null) {
+            eviction.touch(position, cell);
         }
-        return rotated;
+        if (!losing && nearIndex != null) {
+            losing = nearIndex.matches(xMask, oMask, row * 3 + col);
+        }
+        if (EngineMetrics.ENABLED) {
+            EngineMetrics.get().memoryLookup(losing);
+        }
+        MemoryLookupEvent event = new MemoryLookupEvent();
+        if (event.shouldCommit()) {
+            event.position = position;
+            event.cell = cell;
+            event.losing = losing;
+            event.commit();
+        }
+        return losing;
     }
 
-    private char[][] flipHorizontal(char[][] board) {
-        int n = board.length;
-        char[][] flipped = new char[n][n];
-        for (int i = 0; i < n; i++) {
-            System.arraycopy(board[i], 0, flipped[n - 1 - i], 0, n);
+    /**
+     * Conta as jogadas perdedoras registradas. Sem limite de capacidade,
+     * percorre todas as posições.
+     *
+     * @return Número de células marcadas no referencial canônico
+     */
+    public int getEntryCount() {
+        if (eviction != null) {
+            return eviction.getEntryCount();
         }
-        return flipped;
+        int entries = 0;
+        for (int position = 0; position < BoardSymmetry.POSITIONS; position++) {
+            entries += Integer.bitCount(store.losingCells(position));
+        }
+        return entries;
     }
 
-    private char[][] flipVertical(char[][] board) {
-        int n = board.length;
-        char[][] flipped = new char[n][n];
-        for (int i = 0; i < n; i++) {
-            for (int j = 0; j < n; j++) {
-                flipped[i][j] = board[i][n - 1 - j];
-            }
-        }
-        return flipped;
+    /**
+     * @return Limite de jogadas ({@code velha.memory.capacity}), ou 0 sem limite
+     */
+    public int getCapacity() {
+        return eviction == null ? 0 : eviction.getCapacity();
     }
 
-    private String getBoardKey(char[][] board) {
-        StringBuilder key = new StringBuilder();
-        for (char[] row : board) {
-            for (char cell : row) {
-                key.append(cell == ' ' ? '-' : cell);
+    /**
+     * @return Jogadas removidas por falta de espaço desde a abertura
+     */
+    public long getEvictedCount() {
+        return eviction == null ? 0 : eviction.getEvictedCount();
+    }
+
+    /**
+     * Grava as jogadas ainda enfileiradas e fecha o armazenamento, garantindo
+     * que as jogadas aprendidas cheguem ao disco.
+     */
+    @Override
+    public void close() {
+        synchronized (GameMemory.class) {
+            if (this == shared) {
+                if (--sharedReferences > 0) {
+                    return;
+                }
+                shared = null;
             }
         }
-        return key.toString();
+        writer.close();
+        store.close();
     }
 
-    private Map<String, List<BoardState>> loadMemory() {
-        File file = new File(MEMORY_FILE);
-        if (file.exists()) {
-            try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
-                Object obj = ois.readObject();
-                if (obj instanceof Map) {
-                    @SuppressWarnings("unchecked")
-                    Map<String, List<BoardState>> map = (Map<String, List<BoardState>>) obj;
-                    return map;
-                }
-                System.err.println("Arquivo de memória corrompido. Criando nova memória.");
-            } catch (IOException | ClassNotFoundException e) {
-                System.err.println("Erro ao carregar memória: " + e.getMessage());
+    private GameMemoryStore openStore() {
+        String backend = System.getProperty("velha.memory.backend", "journal");
+        try {
+            if (backend.equals("mapped")) {
+                return new MappedGameMemoryStore(directory.resolve("game_memory.table"));
             }
+            return new JournalGameMemoryStore(directory, "game_memory");
+        } catch (IOException e) {
+            System.err.println("Erro ao carregar memória: " + e.getMessage() + ". Usando memória temporária.");
+            return new JournalGameMemoryStore();
         }
-        return new HashMap<>();
     }
 
-    private void saveMemory() {
-        File dir = new File(MEMORY_FILE).getParentFile();
-        if (!dir.exists() && !dir.mkdirs()) {
-            System.err.println("Não foi possível criar o diretório para salvar a memória.");
-            return;
+    private void importLegacyMemory() {
+        for (List<BoardState> states : loadLegacyMemory().values()) {
+            for (BoardState state : states) {
+                addLosingCells(BoardSymmetry.mask(state.board(), 'X'), BoardSymmetry.mask(state.board(), 'O'),
+                        state.row() * 3 + state.col());
+            }
         }
+        store.flush();
+    }
 
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(MEMORY_FILE))) {
-            oos.writeObject(losingMoves);
-        } catch (IOException e) {
-            System.err.println("Erro ao salvar memória: " + e.getMessage());
+    /**
+     * Lê o formato antigo (mapa serializado) para migrá-lo para o armazenamento atual.
+     */
+    private Map<String, List<BoardState>> loadLegacyMemory() {
+        try (ObjectInputStream ois = new ObjectInputStream(
+                new FileInputStream(directory.resolve(LEGACY_MEMORY_FILE).toFile()))) {
+            Object obj = ois.readObject();
+            if (obj instanceof Map) {
+                @SuppressWarnings("unchecked")
+                Map<String, List<BoardState>> map = (Map<String, List<BoardState>>) obj;
+                return map;
+            }
+            System.err.println("Arquivo de memória corrompido. Criando nova memória.");
+        } catch (IOException | ClassNotFoundException e) {
+            System.err.println("Erro ao carregar memória: " + e.getMessage());
         }
+        return new HashMap<>();
     }
 
     /**
@@ -161,32 +320,5 @@ public class GameMemory implements Serializable {
                 this.row = row;
                 this.col = col;
             }
-
-            boolean isEquivalentMove(char[][] currentBoard, int moveRow, int moveCol) {
-                // Verifica se a posição é a mesma
-                if (row != moveRow || col != moveCol) {
-                    return false;
-                }
-
-                // Conta o número total de peças em cada tabuleiro
-                int totalPieces = 0;
-                int totalCurrentPieces = 0;
-                int matchingPositions = 0;
-
-                for (int i = 0; i < 3; i++) {
-                    for (int j = 0; j < 3; j++) {
-                        if (board[i][j] != ' ')
-                            totalPieces++;
-                        if (currentBoard[i][j] != ' ')
-                            totalCurrentPieces++;
-                        if (board[i][j] == currentBoard[i][j])
-                            matchingPositions++;
-                    }
-                }
-
-                // Verifica se o número de peças é similar e se a maioria das posições
-                // corresponde
-                return totalPieces == totalCurrentPieces && matchingPositions >= 7;
-            }
         }
 }
\ No newline at end of file
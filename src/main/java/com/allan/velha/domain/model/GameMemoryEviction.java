@@ -0,0 +1,134 @@
+package com.allan.velha.domain.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limita o número de jogadas perdedoras da {@link GameMemory}, configurado por
+ * {@code velha.memory.capacity} (padrão 0, sem limite).
+ * <p>
+ * Cada jogada guarda um contador de uso de 8 bits, saturado, que sobe quando a
+ * jogada é aprendida de novo ou quando uma consulta a encontra. Quando a
+ * memória passa da capacidade, todos os contadores são divididos por dois
+ * (jogadas sem uso recente perdem peso) e as jogadas de menor contador são
+ * removidas até a memória cair a 90% da capacidade, para que a remoção não
+ * rode a cada jogada nova.
+ * <p>
+ * Os contadores ficam só no heap e são aproximados: incrementos concorrentes
+ * podem se perder. Na carga, as jogadas já gravadas começam com contador 1.
+ */
+class GameMemoryEviction {
+    private static final int MAX_WEIGHT = 0xFF;
+
+    private final int capacity;
+    private final int lowWater;
+    private final byte[] weights = new byte[BoardSymmetry.POSITIONS * BoardSymmetry.CELLS];
+    private final AtomicInteger entries = new AtomicInteger();
+    private final LongAdder evicted = new LongAdder();
+
+    /**
+     * @param capacity Número máximo de jogadas perdedoras
+     * @param store    Armazenamento já carregado
+     */
+    GameMemoryEviction(int capacity, GameMemoryStore store) {
+        this.capacity = capacity;
+        this.lowWater = Math.max(1, capacity - capacity / 10);
+        int count = 0;
+        for (int position = 0; position < BoardSymmetry.POSITIONS; position++) {
+            for (int cells = store.losingCells(position); cells != 0; cells &= cells - 1) {
+                weights[position * BoardSymmetry.CELLS + Integer.numberOfTrailingZeros(cells)] = 1;
+                count++;
+            }
+        }
+        entries.set(count);
+    }
+
+    /**
+     * Registra uma jogada aprendida, nova ou repetida.
+     *
+     * @return true se a memória passou da capacidade
+     */
+    boolean learned(int position, int cell, boolean added) {
+        touch(position, cell);
+        return added && entries.incrementAndGet() > capacity;
+    }
+
+    /**
+     * Registra uma consulta que encontrou a jogada.
+     */
+    void touch(int position, int cell) {
+        int index = position * BoardSymmetry.CELLS + cell;
+        int weight = weights[index] & 0xFF;
+        if (weight < MAX_WEIGHT) {
+            weights[index] = (byte) (weight + 1);
+        }
+    }
+
+    /**
+     * Envelhece os contadores e remove as jogadas de menor contador até a
+     * memória cair a 90% da capacidade.
+     *
+     * @param nearIndex Índice de semelhança a manter em dia; pode ser null
+     */
+    synchronized void evict(GameMemoryStore store, GameMemoryNearIndex nearIndex) {
+        if (entries.get() <= capacity) {
+            return;
+        }
+        // Histograma dos contadores já envelhecidos
+        int[] histogram = new int[MAX_WEIGHT + 1];
+        int scanned = 0;
+        for (int position = 0; position < BoardSymmetry.POSITIONS; position++) {
+            for (int cells = store.losingCells(position); cells != 0; cells &= cells - 1) {
+                int index = position * BoardSymmetry.CELLS + Integer.numberOfTrailingZeros(cells);
+                int weight = (weights[index] & 0xFF) >>> 1;
+                weights[index] = (byte) weight;
+                histogram[weight]++;
+                scanned++;
+            }
+        }
+        // Menor contador que precisa ser removido e quantas jogadas com ele saem.
+        // O excesso vem da varredura, e não de entries: jogadas aprendidas em
+        // paralelo depois dela não estão no histograma.
+        int excess = scanned - lowWater;
+        if (excess <= 0) {
+            return;
+        }
+        int threshold = 0;
+        while (threshold < MAX_WEIGHT && histogram[threshold] < excess) {
+            excess -= histogram[threshold++];
+        }
+        for (int position = 0; position < BoardSymmetry.POSITIONS && entries.get() > lowWater; position++) {
+            for (int cells = store.losingCells(position); cells != 0; cells &= cells - 1) {
+                int cell = Integer.numberOfTrailingZeros(cells);
+                int weight = weights[position * BoardSymmetry.CELLS + cell] & 0xFF;
+                if (weight < threshold || weight == threshold && excess-- > 0) {
+                    remove(store, nearIndex, position, cell);
+                }
+            }
+        }
+        store.flush();
+    }
+
+    private void remove(GameMemoryStore store, GameMemoryNearIndex nearIndex, int position, int cell) {
+        if (store.removeLosingCell(position, cell)) {
+            if (nearIndex != null) {
+                nearIndex.remove(position, cell);
+            }
+            weights[position * BoardSymmetry.CELLS + cell] = 0;
+            entries.decrementAndGet();
+            evicted.increment();
+        }
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    int getEntryCount() {
+        return entries.get();
+    }
+
+    long getEvictedCount() {
+        return evicted.sum();
+    }
+}
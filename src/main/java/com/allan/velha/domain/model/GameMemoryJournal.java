@@ -0,0 +1,413 @@
+package com.allan.velha.domain.model;
+
+import com.allan.velha.domain.metrics.EngineMetrics;
+import com.allan.velha.domain.metrics.MemoryPersistEvent;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistência da memória de jogadas em um journal binário append-only.
+ * Cada jogada aprendida ou removida gera um registro de tamanho fixo, acumulado em um
+ * buffer até {@link #flush()}, que grava o lote inteiro de uma vez; na carga, o snapshot
+ * mais recente é lido e o journal é reaplicado sobre ele. Quando o journal
+ * cresce além do limite configurado, uma thread em segundo plano o compacta
+ * em um novo snapshot.
+ * <p>
+ * Configuração (propriedades de sistema):
+ * <ul>
+ * <li>{@code velha.memory.fsync} - {@code always} força o disco a cada lote gravado,
+ * {@code never} (padrão) deixa a sincronização para o sistema operacional</li>
+ * <li>{@code velha.memory.compactionThreshold} - registros no journal antes da
+ * compactação (padrão 10000)</li>
+ * </ul>
+ */
+class GameMemoryJournal implements AutoCloseable {
+    private static final int JOURNAL_MAGIC = 0x56474D4A; // "VGMJ"
+    private static final int SNAPSHOT_MAGIC = 0x56474D53; // "VGMS"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int RECORD_BYTES = 4;
+    /** Bit dos registros de remoção; leitores antigos os descartam como posição inválida. */
+    private static final int REMOVAL = 1 << 31;
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final VarHandle CELLS = MethodHandles.arrayElementVarHandle(short[].class);
+
+    /**
+     * Política de sincronização do journal com o disco.
+     */
+    enum FsyncPolicy {
+        ALWAYS, NEVER
+    }
+
+    private final Path journalFile;
+    private final Path compactingFile;
+    private final Path snapshotFile;
+    private final FsyncPolicy fsyncPolicy;
+    private final long compactionThreshold;
+    /** Registros ainda não gravados; protegido pelo monitor do journal. */
+    private ByteBuffer pending = ByteBuffer.allocate(BUFFER_BYTES);
+    /**
+     * Trava das gravações em arquivo, separada do monitor do journal para que
+     * acrescentar registros não espere a escrita nem o fsync de um lote.
+     * Quem precisa das duas pega esta primeiro.
+     */
+    private final Object io = new Object();
+    /** Buffer trocado com {@link #pending} a cada lote; protegido por {@link #io}. */
+    private ByteBuffer spare = ByteBuffer.allocate(BUFFER_BYTES);
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "game-memory-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /** Protegido por {@link #io}. */
+    private FileChannel channel;
+    private long records;
+    private boolean compacting;
+
+    GameMemoryJournal(Path directory, String baseName) {
+        this.journalFile = directory.resolve(baseName + ".journal");
+        this.compactingFile = directory.resolve(baseName + ".journal.compacting");
+        this.snapshotFile = directory.resolve(baseName + ".snapshot");
+        this.fsyncPolicy = fsyncPolicy(System.getProperty("velha.memory.fsync", "never"));
+        this.compactionThreshold = Long.getLong("velha.memory.compactionThreshold", 10_000L);
+    }
+
+    private static FsyncPolicy fsyncPolicy(String value) {
+        try {
+            return FsyncPolicy.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Valor inválido para velha.memory.fsync: " + value + ". Usando never.");
+            return FsyncPolicy.NEVER;
+        }
+    }
+
+    /**
+     * @return true se já existe snapshot ou journal em disco
+     */
+    boolean exists() {
+        return Files.exists(snapshotFile) || Files.exists(journalFile) || Files.exists(compactingFile);
+    }
+
+    /**
+     * Carrega o snapshot e reaplica os journals sobre a tabela, deixando o journal
+     * aberto para novos registros.
+     *
+     * @param table Tabela de células perdedoras indexada por posição canônica
+     */
+    void load(short[] table) throws IOException {
+        synchronized (io) {
+            synchronized (this) {
+                loadFiles(table);
+            }
+        }
+    }
+
+    private void loadFiles(short[] table) throws IOException {
+        MemoryPersistEvent event = new MemoryPersistEvent();
+        event.begin();
+        Files.createDirectories(journalFile.getParent());
+        long bytes = 0;
+        if (Files.exists(snapshotFile)) {
+            readSnapshot(table);
+            bytes += Files.size(snapshotFile);
+        }
+        // Um journal em compactação só sobra se o processo parou no meio dela
+        if (Files.exists(compactingFile)) {
+            replay(compactingFile, table);
+            bytes += Files.size(compactingFile);
+        }
+        if (Files.exists(journalFile)) {
+            records = replay(journalFile, table);
+            bytes += Files.size(journalFile);
+        }
+        channel = openJournal();
+        MemoryPersistEvent.commit(event, MemoryPersistEvent.LOAD, bytes);
+    }
+
+    /**
+     * Acrescenta ao buffer o estado atual de uma casa na tabela: adição se ela
+     * está marcada, remoção se não. Chamado depois de cada alteração da casa.
+     * Como o estado é lido sob o monitor do journal, o último registro de cada
+     * casa sempre corresponde à tabela, em qualquer ordem que threads
+     * concorrentes cheguem aqui depois de alterá-la. O registro só chega ao
+     * arquivo no próximo {@link #flush()} ou quando o buffer enche.
+     *
+     * @param table Tabela alterada por compare-and-set
+     */
+    void append(int position, int cell, short[] table) throws IOException {
+        while (!tryAppend(position, cell, table)) {
+            writeBatch(false);
+        }
+        if (compactionDue()) {
+            compact(table);
+        }
+    }
+
+    private synchronized boolean tryAppend(int position, int cell, short[] table) {
+        if (!pending.hasRemaining()) {
+            return false;
+        }
+        int record = position << 4 | cell;
+        boolean set = ((short) CELLS.getAcquire(table, position) & 1 << cell) != 0;
+        pending.putInt(set ? record : REMOVAL | record);
+        records++;
+        return true;
+    }
+
+    private synchronized boolean compactionDue() {
+        return records >= compactionThreshold && !compacting;
+    }
+
+    /**
+     * Grava os registros acumulados com uma única escrita, forçando o disco
+     * conforme a política de sincronização.
+     */
+    void flush() throws IOException {
+        MemoryPersistEvent event = new MemoryPersistEvent();
+        event.begin();
+        long start = EngineMetrics.ENABLED ? System.nanoTime() : 0;
+        int bytes = writeBatch(fsyncPolicy == FsyncPolicy.ALWAYS);
+        if (bytes == 0) {
+            return;
+        }
+        if (EngineMetrics.ENABLED) {
+            EngineMetrics.get().saved(System.nanoTime() - start, bytes);
+        }
+        MemoryPersistEvent.commit(event, MemoryPersistEvent.FLUSH, bytes);
+    }
+
+    @Override
+    public void close() {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (io) {
+            try {
+                if (channel != null) {
+                    writeBatch(true);
+                    channel.close();
+                }
+            } catch (IOException e) {
+                System.err.println("Erro ao fechar journal da memória: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Troca o buffer de registros por um vazio e grava o lote retirado, sem
+     * segurar o monitor do journal durante a escrita.
+     *
+     * @return Bytes gravados
+     */
+    private int writeBatch(boolean force) throws IOException {
+        synchronized (io) {
+            ByteBuffer batch;
+            synchronized (this) {
+                if (pending.position() == 0) {
+                    return 0;
+                }
+                batch = pending;
+                pending = spare;
+            }
+            spare = batch;
+            int bytes = batch.position();
+            write(batch);
+            if (force) {
+                channel.force(false);
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * Copia a tabela e troca de journal no mesmo ponto da sequência de
+     * registros, e grava o snapshot da cópia em segundo plano.
+     */
+    private void compact(short[] table) throws IOException {
+        short[] copy;
+        synchronized (io) {
+            ByteBuffer batch;
+            synchronized (this) {
+                if (records < compactionThreshold || compacting) {
+                    return;
+                }
+                compacting = true;
+                records = 0;
+                // Os registros anteriores à cópia vão para o journal que será
+                // compactado; os seguintes, para o novo journal
+                copy = table.clone();
+                batch = pending;
+                pending = spare;
+            }
+            spare = batch;
+            try {
+                write(batch);
+                rotateJournal();
+            } catch (IOException e) {
+                synchronized (this) {
+                    compacting = false;
+                }
+                throw e;
+            }
+        }
+        compactor.execute(() -> {
+            try {
+                writeSnapshot(copy);
+            } catch (IOException e) {
+                System.err.println("Erro ao compactar memória: " + e.getMessage());
+            } finally {
+                synchronized (this) {
+                    compacting = false;
+                }
+            }
+        });
+    }
+
+    /**
+     * Move o journal atual para o arquivo de compactação e abre um journal vazio.
+     * Os registros do arquivo movido já estão contidos na cópia da tabela.
+     */
+    private void rotateJournal() throws IOException {
+        channel.force(false);
+        channel.close();
+        if (!appendToCompacting()) {
+            Files.move(journalFile, compactingFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+        channel = openJournal();
+    }
+
+    /**
+     * Um arquivo de compactação que sobrou de uma compactação que falhou (ou
+     * que foi só reaplicado na carga) ainda guarda registros que nenhum
+     * snapshot contém: o journal atual é acrescentado a ele, na ordem, em vez
+     * de substituí-lo.
+     *
+     * @return false se não há arquivo de compactação válido para continuar
+     */
+    private boolean appendToCompacting() throws IOException {
+        if (!Files.exists(compactingFile) || Files.size(compactingFile) < HEADER_BYTES) {
+            return false;
+        }
+        try (FileChannel target = FileChannel.open(compactingFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                FileChannel source = FileChannel.open(journalFile, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && target.read(header, header.position()) >= 0) {
+                // lê o cabeçalho inteiro
+            }
+            header.flip();
+            if (header.getInt() != JOURNAL_MAGIC || header.getInt() != VERSION) {
+                return false; // ilegível: a carga já o ignoraria
+            }
+            // Alinha ao último registro completo, como em openJournal
+            long size = target.size();
+            target.truncate(size - (size - HEADER_BYTES) % RECORD_BYTES);
+            target.position(target.size());
+            long end = source.size();
+            for (long from = HEADER_BYTES; from < end; ) {
+                from += source.transferTo(from, end - from, target);
+            }
+            target.force(false);
+        }
+        Files.delete(journalFile);
+        return true;
+    }
+
+    private void write(ByteBuffer batch) throws IOException {
+        batch.flip();
+        while (batch.hasRemaining()) {
+            channel.write(batch);
+        }
+        batch.clear();
+    }
+
+    private void writeSnapshot(short[] table) throws IOException {
+        MemoryPersistEvent event = new MemoryPersistEvent();
+        event.begin();
+        long start = EngineMetrics.ENABLED ? System.nanoTime() : 0;
+        Path temp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + table.length * Short.BYTES);
+        buffer.putInt(SNAPSHOT_MAGIC).putInt(VERSION);
+        buffer.asShortBuffer().put(table);
+        buffer.clear();
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(compactingFile);
+        if (EngineMetrics.ENABLED) {
+            EngineMetrics.get().saved(System.nanoTime() - start, HEADER_BYTES + (long) table.length * Short.BYTES);
+        }
+        MemoryPersistEvent.commit(event, MemoryPersistEvent.SNAPSHOT, HEADER_BYTES + (long) table.length * Short.BYTES);
+    }
+
+    private void readSnapshot(short[] table) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshotFile));
+        if (buffer.remaining() != HEADER_BYTES + table.length * Short.BYTES
+                || buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != VERSION) {
+            System.err.println("Snapshot de memória corrompido. Ignorando snapshot.");
+            return;
+        }
+        buffer.asShortBuffer().get(table);
+    }
+
+    private long replay(Path file, short[] table) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != JOURNAL_MAGIC || buffer.getInt() != VERSION) {
+            System.err.println("Journal de memória corrompido: " + file.getFileName());
+            return 0;
+        }
+        long count = 0;
+        // Um registro final incompleto (escrita interrompida) é descartado
+        while (buffer.remaining() >= RECORD_BYTES) {
+            int value = buffer.getInt();
+            int position = (value & ~REMOVAL) >>> 4;
+            int cell = value & 0xF;
+            if (position < table.length && cell < BoardSymmetry.CELLS) {
+                if ((value & REMOVAL) != 0) {
+                    table[position] &= (short) ~(1 << cell);
+                } else {
+                    table[position] |= (short) (1 << cell);
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private FileChannel openJournal() throws IOException {
+        boolean fresh = !Files.exists(journalFile) || Files.size(journalFile) < HEADER_BYTES;
+        FileChannel journal = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (fresh) {
+            journal.truncate(0);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(JOURNAL_MAGIC).putInt(VERSION).flip();
+            while (header.hasRemaining()) {
+                journal.write(header);
+            }
+        } else {
+            // Alinha ao último registro completo antes de continuar acrescentando
+            long size = journal.size();
+            journal.truncate(size - (size - HEADER_BYTES) % RECORD_BYTES);
+        }
+        journal.position(journal.size());
+        return journal;
+    }
+}
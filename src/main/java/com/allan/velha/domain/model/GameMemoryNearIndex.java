@@ -0,0 +1,110 @@
+package com.allan.velha.domain.model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Índice de semelhança da {@link GameMemory}: encontra jogadas perdedoras
+ * registradas em posições quase iguais à consultada, com a mesma célula
+ * jogada, o mesmo número de peças e no máximo {@value #MAX_DISTANCE} casas
+ * diferentes (ao menos 7 das 9 iguais), em qualquer das 8 simetrias.
+ * <p>
+ * As jogadas ficam no referencial canônico, agrupadas por célula e número de
+ * peças; cada uma é um inteiro com as máscaras de X (bits 0-8) e O (bits 9-17),
+ * e a distância é a contagem de bits das casas diferentes. Uma consulta
+ * percorre só o grupo de cada simetria, em vez da memória inteira.
+ * <p>
+ * Consultas não usam trava: cada grupo é um array substituído por inteiro a
+ * cada alteração, que são raras (só jogadas novas ou removidas).
+ */
+class GameMemoryNearIndex {
+    static final int MAX_DISTANCE = 2;
+    private static final int MAX_PIECES = BoardSymmetry.CELLS - 1;
+    private static final int[] EMPTY = new int[0];
+
+    /** Grupo {@code célula * (MAX_PIECES + 1) + peças}. */
+    private final AtomicReferenceArray<int[]> buckets =
+            new AtomicReferenceArray<>(BoardSymmetry.CELLS * (MAX_PIECES + 1));
+
+    /**
+     * Indexa as jogadas já presentes no armazenamento.
+     */
+    GameMemoryNearIndex(GameMemoryStore store) {
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, EMPTY);
+        }
+        for (int position = 0; position < BoardSymmetry.POSITIONS; position++) {
+            for (int cells = store.losingCells(position); cells != 0; cells &= cells - 1) {
+                add(position, Integer.numberOfTrailingZeros(cells));
+            }
+        }
+    }
+
+    /**
+     * @param position Índice canônico da posição
+     * @param cell     Célula no referencial canônico
+     */
+    synchronized void add(int position, int cell) {
+        int entry = entry(position);
+        int bucket = bucket(cell, pieces(entry));
+        int[] entries = buckets.get(bucket);
+        int[] grown = Arrays.copyOf(entries, entries.length + 1);
+        grown[entries.length] = entry;
+        buckets.set(bucket, grown);
+    }
+
+    synchronized void remove(int position, int cell) {
+        int entry = entry(position);
+        int bucket = bucket(cell, pieces(entry));
+        int[] entries = buckets.get(bucket);
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i] == entry) {
+                int[] shrunk = Arrays.copyOf(entries, entries.length - 1);
+                System.arraycopy(entries, i + 1, shrunk, i, entries.length - i - 1);
+                buckets.set(bucket, shrunk);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Procura uma jogada perdedora semelhante à consultada.
+     *
+     * @param xMask Máscara das células de X
+     * @param oMask Máscara das células de O
+     * @param cell  Célula jogada
+     * @return true se alguma jogada registrada está a no máximo {@value #MAX_DISTANCE} casas
+     */
+    boolean matches(int xMask, int oMask, int cell) {
+        int pieces = Integer.bitCount(xMask | oMask);
+        if (pieces > MAX_PIECES) {
+            return false;
+        }
+        for (int s = 0; s < BoardSymmetry.SYMMETRIES; s++) {
+            int[] entries = buckets.get(bucket(BoardSymmetry.transformCell(s, cell), pieces));
+            if (entries.length == 0) {
+                continue;
+            }
+            int query = BoardSymmetry.transformMask(s, xMask) | BoardSymmetry.transformMask(s, oMask) << 9;
+            for (int entry : entries) {
+                int diff = entry ^ query;
+                if (Integer.bitCount((diff | diff >>> 9) & 0x1FF) <= MAX_DISTANCE) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static int entry(int position) {
+        return BoardSymmetry.maskOf(position, 'X') | BoardSymmetry.maskOf(position, 'O') << 9;
+    }
+
+    private static int pieces(int entry) {
+        return Integer.bitCount(entry);
+    }
+
+    private static int bucket(int cell, int pieces) {
+        return cell * (MAX_PIECES + 1) + pieces;
+    }
+}
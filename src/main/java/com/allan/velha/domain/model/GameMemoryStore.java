@@ -0,0 +1,47 @@
+package com.allan.velha.domain.model;
+
+/**
+ * Armazenamento da memória de jogadas perdedoras, indexado pela posição
+ * canônica ({@link BoardSymmetry}) com um bit por célula.
+ * A implementação é escolhida pela propriedade de sistema
+ * {@code velha.memory.backend}: {@code journal} (padrão) ou {@code mapped}.
+ */
+interface GameMemoryStore extends AutoCloseable {
+
+    /**
+     * @param position Índice canônico da posição
+     * @return Máscara de 9 bits das células perdedoras
+     */
+    int losingCells(int position);
+
+    /**
+     * Marca uma célula como perdedora.
+     *
+     * @param position Índice canônico da posição
+     * @param cell     Célula no referencial canônico
+     * @return true se a célula ainda não estava marcada
+     */
+    boolean addLosingCell(int position, int cell);
+
+    /**
+     * Desmarca uma célula, quando a memória remove jogadas por falta de espaço.
+     *
+     * @param position Índice canônico da posição
+     * @param cell     Célula no referencial canônico
+     * @return true se a célula estava marcada
+     */
+    boolean removeLosingCell(int position, int cell);
+
+    /**
+     * Persiste as células marcadas desde a última chamada.
+     */
+    void flush();
+
+    /**
+     * @return true se o armazenamento foi criado agora, sem dados anteriores
+     */
+    boolean isFresh();
+
+    @Override
+    void close();
+}
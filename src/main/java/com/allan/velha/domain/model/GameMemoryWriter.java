@@ -0,0 +1,118 @@
+package com.allan.velha.domain.model;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grava em segundo plano, em lotes, as jogadas perdedoras enfileiradas na
+ * {@link GameMemory}. Um lote é gravado quando atinge o tamanho configurado ou
+ * quando a jogada mais antiga da fila espera mais que o intervalo configurado;
+ * cada lote é persistido de uma só vez. Fechar o escritor grava o que ainda
+ * estiver na fila.
+ * <p>
+ * As jogadas são guardadas como inteiros empacotados por
+ * {@link GameMemory#pack(int, int, int)}, sem alocar por jogada.
+ */
+class GameMemoryWriter implements AutoCloseable {
+    private final GameMemory memory;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private int[] pending;
+    private int count;
+    private long oldestNanos;
+    private boolean closed;
+    private Thread thread;
+
+    /**
+     * @param memory          Memória onde os lotes são gravados
+     * @param batchSize       Jogadas que disparam a gravação imediata
+     * @param flushIntervalMs Espera máxima de uma jogada na fila
+     */
+    GameMemoryWriter(GameMemory memory, int batchSize, long flushIntervalMs) {
+        this.memory = memory;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.pending = new int[this.batchSize];
+    }
+
+    /**
+     * Enfileira uma jogada. A thread de gravação é criada na primeira chamada.
+     */
+    void submit(int packedMove) {
+        synchronized (this) {
+            if (!closed) {
+                if (thread == null) {
+                    thread = new Thread(this::run, "game-memory-writer");
+                    thread.setDaemon(true);
+                    thread.start();
+                }
+                if (count == pending.length) {
+                    pending = Arrays.copyOf(pending, count * 2);
+                }
+                if (count == 0) {
+                    oldestNanos = System.nanoTime();
+                }
+                pending[count++] = packedMove;
+                if (count == batchSize) {
+                    notifyAll();
+                }
+                return;
+            }
+        }
+        // Depois de fechado, grava direto para não perder a jogada
+        memory.addLosingMoves(new int[] { packedMove }, 1);
+    }
+
+    /**
+     * Grava a fila restante e encerra a thread de gravação.
+     */
+    @Override
+    public void close() {
+        Thread writer;
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+            writer = thread;
+        }
+        if (writer != null) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        int[] batch = new int[batchSize];
+        while (true) {
+            int size;
+            synchronized (this) {
+                try {
+                    while (!closed && !isBatchReady()) {
+                        if (count == 0) {
+                            wait();
+                        } else {
+                            TimeUnit.NANOSECONDS.timedWait(this, flushIntervalNanos - (System.nanoTime() - oldestNanos));
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    closed = true;
+                }
+                if (count == 0) {
+                    return; // fechado e sem nada na fila
+                }
+                int[] full = pending;
+                pending = batch.length >= batchSize ? batch : new int[batchSize];
+                batch = full;
+                size = count;
+                count = 0;
+            }
+            memory.addLosingMoves(batch, size);
+        }
+    }
+
+    private boolean isBatchReady() {
+        return count >= batchSize || count > 0 && System.nanoTime() - oldestNanos >= flushIntervalNanos;
+    }
+}
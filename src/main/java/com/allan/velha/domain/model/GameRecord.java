@@ -0,0 +1,61 @@
+package com.allan.velha.domain.model;
+
+/**
+ * Formato binário compacto de arquivos de partidas, gravados por
+ * {@link GameRecordWriter} e lidos por {@link GameRecordReader}.
+ * <p>
+ * O arquivo começa com um cabeçalho de {@value #HEADER_BYTES} bytes: a marca
+ * {@code "VGGR"}, a versão, o tamanho do tabuleiro e o número de símbolos
+ * alinhados para vencer, comuns a todas as partidas do arquivo. Cada partida é:
+ * <ul>
+ * <li>um byte com o resultado (bits 6-7, na ordem de {@link Result}), quem
+ * começou (bit 5, 1 para O) e o número de jogadas (bits 0-4); o valor 31
+ * indica que o número vem nos dois bytes seguintes</li>
+ * <li>as casas jogadas ({@code linha * tamanho + coluna}), com o mesmo tamanho
+ * por jogada de {@link MoveHistory}: meio byte até 16 casas (o 3x3), um byte
+ * até 256 e dois bytes acima disso, completando o último byte</li>
+ * </ul>
+ * Uma partida 3x3 de 7 jogadas ocupa 5 bytes. Os jogadores são implícitos:
+ * X e O, na ordem indicada pelo bit de quem começou.
+ */
+public final class GameRecord {
+    static final int MAGIC = 0x56474752; // "VGGR"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 12;
+    static final int LONG_COUNT = 31;
+    static final int MAX_BOARD_SIZE = 255;
+
+    /**
+     * Resultado de uma partida gravada.
+     */
+    public enum Result {
+        X, O, DRAW,
+        /** Partida gravada antes do fim (abandonada ou sem jogada possível). */
+        UNFINISHED
+    }
+
+    private GameRecord() {
+    }
+
+    /**
+     * @return Bits por jogada em um tabuleiro com {@code cellCount} casas
+     */
+    static int bitsPerMove(int cellCount) {
+        return cellCount <= 16 ? 4 : cellCount <= 256 ? 8 : 16;
+    }
+
+    /**
+     * @return Bytes ocupados pelas jogadas de uma partida
+     */
+    static int moveBytes(int moves, int bitsPerMove) {
+        return (moves * bitsPerMove + 7) / 8;
+    }
+
+    /**
+     * @return Maior tamanho possível de uma partida no tabuleiro
+     */
+    static int maxRecordBytes(int boardSize) {
+        int cells = boardSize * boardSize;
+        return 3 + moveBytes(cells, bitsPerMove(cells));
+    }
+}
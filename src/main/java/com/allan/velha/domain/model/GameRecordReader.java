@@ -0,0 +1,195 @@
+package com.allan.velha.domain.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lê em sequência um arquivo de partidas no formato de {@link GameRecord},
+ * com um buffer de tamanho fixo, sem carregar o arquivo na memória.
+ * <p>
+ * Funciona como um cursor: {@link #next()} avança para a próxima partida, cujos
+ * dados ficam disponíveis pelos getters até a chamada seguinte. Nenhuma
+ * leitura aloca por partida. Uma partida final incompleta é ignorada.
+ */
+public final class GameRecordReader implements AutoCloseable {
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final GameRecord.Result[] RESULTS = GameRecord.Result.values();
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final int boardSize;
+    private final int winLength;
+    private final int bitsPerMove;
+    private final int[] cells;
+    private int moveCount;
+    private GameRecord.Result result;
+    private char firstSymbol;
+    /** Posição no arquivo do fim da partida atual. */
+    private long position;
+
+    public GameRecordReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        ByteBuffer header = ByteBuffer.allocate(GameRecord.HEADER_BYTES);
+        while (header.hasRemaining() && channel.read(header) >= 0) {
+            // lê o cabeçalho inteiro
+        }
+        header.flip();
+        if (header.remaining() < GameRecord.HEADER_BYTES || header.getInt() != GameRecord.MAGIC
+                || header.getInt() != GameRecord.VERSION) {
+            channel.close();
+            throw new IOException("Arquivo de partidas inválido: " + file.getFileName());
+        }
+        this.boardSize = header.get() & 0xFF;
+        this.winLength = header.get() & 0xFF;
+        this.bitsPerMove = GameRecord.bitsPerMove(boardSize * boardSize);
+        this.cells = new int[boardSize * boardSize];
+        this.buffer = ByteBuffer.allocate(Math.max(BUFFER_BYTES, GameRecord.maxRecordBytes(boardSize)));
+        buffer.limit(0);
+        this.position = GameRecord.HEADER_BYTES;
+    }
+
+    /**
+     * Avança para a próxima partida.
+     *
+     * @return false no fim do arquivo
+     */
+    public boolean next() throws IOException {
+        if (!fill(1)) {
+            return false;
+        }
+        int header = buffer.get(buffer.position()) & 0xFF;
+        int moves = header & GameRecord.LONG_COUNT;
+        int headerBytes = 1;
+        if (moves == GameRecord.LONG_COUNT) {
+            if (!fill(3)) {
+                return false;
+            }
+            moves = buffer.getShort(buffer.position() + 1) & 0xFFFF;
+            headerBytes = 3;
+        }
+        if (moves > cells.length) {
+            throw new IOException("Partida com mais jogadas que casas: " + moves);
+        }
+        int moveBytes = GameRecord.moveBytes(moves, bitsPerMove);
+        if (!fill(headerBytes + moveBytes)) {
+            return false;
+        }
+        buffer.position(buffer.position() + headerBytes);
+
+        switch (bitsPerMove) {
+            case 4 -> {
+                for (int i = 0; i < moves; i += 2) {
+                    int packed = buffer.get();
+                    cells[i] = packed & 0xF;
+                    if (i + 1 < moves) {
+                        cells[i + 1] = packed >>> 4 & 0xF;
+                    }
+                }
+            }
+            case 8 -> {
+                for (int i = 0; i < moves; i++) {
+                    cells[i] = buffer.get() & 0xFF;
+                }
+            }
+            default -> {
+                for (int i = 0; i < moves; i++) {
+                    cells[i] = buffer.getShort() & 0xFFFF;
+                }
+            }
+        }
+        moveCount = moves;
+        result = RESULTS[header >>> 6];
+        firstSymbol = (header & 1 << 5) != 0 ? 'O' : 'X';
+        position += headerBytes + moveBytes;
+        return true;
+    }
+
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    public GameRecord.Result getResult() {
+        return result;
+    }
+
+    /**
+     * @return Símbolo de quem fez a primeira jogada
+     */
+    public char getFirstSymbol() {
+        return firstSymbol;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * @return Casa ({@code linha * tamanho + coluna}) da jogada de índice {@code index}
+     */
+    public int getMoveCell(int index) {
+        if (index < 0 || index >= moveCount) {
+            throw new IndexOutOfBoundsException("Jogada " + index + " de " + moveCount);
+        }
+        return cells[index];
+    }
+
+    /**
+     * @return Posição no arquivo logo após a partida atual
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Reconstrói a partida atual, por exemplo para entregá-la a
+     * {@code NeuralNetworkService.registerGameResult}.
+     *
+     * @return Novo jogo com as jogadas aplicadas
+     */
+    public Game toGame(Player playerX, Player playerO) {
+        Game game = new Game(playerX, playerO, boardSize, winLength);
+        if (firstSymbol == 'O') {
+            game.setCurrentPlayer(playerO);
+        }
+        for (int i = 0; i < moveCount; i++) {
+            game.makeMove(cells[i] / boardSize, cells[i] % boardSize);
+        }
+        return game;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Garante {@code bytes} bytes no buffer a partir da posição atual, lendo
+     * mais do arquivo se preciso. A partida atual sempre começa na posição do
+     * buffer, então uma partida incompleta continua inteira para a próxima tentativa.
+     *
+     * @return false se o arquivo acabou antes
+     */
+    private boolean fill(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return true;
+        }
+        buffer.compact();
+        try {
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            buffer.flip();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.allan.velha.domain.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Grava partidas encerradas no formato de {@link GameRecord}, acrescentando ao
+ * fim do arquivo. As partidas são acumuladas em um buffer e gravadas em blocos,
+ * sem alocar por partida; {@link #close()} grava o que restar.
+ * <p>
+ * Se o arquivo já existe, o cabeçalho precisa ter o mesmo tabuleiro. Uma
+ * partida final incompleta (gravação interrompida) é descartada antes de
+ * continuar, o que exige ler o arquivo uma vez na abertura.
+ * <p>
+ * Seguro para uso por várias threads: as gravações são serializadas.
+ */
+public final class GameRecordWriter implements AutoCloseable {
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final int boardSize;
+    private final int winLength;
+    private final int bitsPerMove;
+    private long games;
+
+    /**
+     * @param file      Arquivo de partidas, criado se não existir
+     * @param boardSize Tamanho do tabuleiro das partidas
+     * @param winLength Símbolos alinhados para vencer
+     */
+    public GameRecordWriter(Path file, int boardSize, int winLength) throws IOException {
+        if (boardSize > GameRecord.MAX_BOARD_SIZE) {
+            throw new IllegalArgumentException("Tabuleiro grande demais para o arquivo de partidas: " + boardSize);
+        }
+        this.buffer = ByteBuffer.allocate(Math.max(BUFFER_BYTES, GameRecord.maxRecordBytes(boardSize)));
+        this.boardSize = boardSize;
+        this.winLength = winLength;
+        this.bitsPerMove = GameRecord.bitsPerMove(boardSize * boardSize);
+        long end = validEnd(file);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (end == 0) {
+            channel.truncate(0);
+            buffer.putInt(GameRecord.MAGIC).putInt(GameRecord.VERSION)
+                    .put((byte) boardSize).put((byte) winLength).putShort((short) 0);
+        } else {
+            channel.truncate(end);
+        }
+        channel.position(channel.size());
+    }
+
+    /**
+     * Grava as jogadas aplicadas da partida e seu resultado. Partidas de outro
+     * tabuleiro são recusadas.
+     */
+    public synchronized void write(Game game) throws IOException {
+        if (game.getBoard().getSize() != boardSize || game.getBoard().getWinLength() != winLength) {
+            throw new IllegalArgumentException("Partida de outro tabuleiro que o do arquivo");
+        }
+        int moves = game.getPly();
+        int bytes = 3 + GameRecord.moveBytes(moves, bitsPerMove);
+        if (buffer.remaining() < bytes) {
+            writeBuffer();
+        }
+
+        GameRecord.Result result = !game.isGameOver() ? GameRecord.Result.UNFINISHED
+                : game.getWinner() == null ? GameRecord.Result.DRAW
+                // Quem vence é sempre quem fez a última jogada
+                : game.getMoveSymbol(moves - 1) == 'X' ? GameRecord.Result.X : GameRecord.Result.O;
+        char first = moves > 0 ? game.getMoveSymbol(0) : game.getCurrentSymbol();
+        int header = result.ordinal() << 6 | (first == 'O' ? 1 << 5 : 0);
+        if (moves < GameRecord.LONG_COUNT) {
+            buffer.put((byte) (header | moves));
+        } else {
+            buffer.put((byte) (header | GameRecord.LONG_COUNT)).putShort((short) moves);
+        }
+
+        switch (bitsPerMove) {
+            case 4 -> {
+                for (int i = 0; i < moves; i += 2) {
+                    int low = game.getMoveCell(i);
+                    int high = i + 1 < moves ? game.getMoveCell(i + 1) : 0;
+                    buffer.put((byte) (low | high << 4));
+                }
+            }
+            case 8 -> {
+                for (int i = 0; i < moves; i++) {
+                    buffer.put((byte) game.getMoveCell(i));
+                }
+            }
+            default -> {
+                for (int i = 0; i < moves; i++) {
+                    buffer.putShort((short) game.getMoveCell(i));
+                }
+            }
+        }
+        games++;
+    }
+
+    /**
+     * Grava em disco as partidas acumuladas no buffer.
+     */
+    public synchronized void flush() throws IOException {
+        writeBuffer();
+    }
+
+    /**
+     * @return Partidas gravadas por este escritor
+     */
+    public synchronized long getGameCount() {
+        return games;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writeBuffer();
+        channel.close();
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * @return Fim da última partida completa do arquivo, ou 0 se é preciso criá-lo
+     */
+    private long validEnd(Path file) throws IOException {
+        if (!Files.exists(file) || Files.size(file) < GameRecord.HEADER_BYTES) {
+            return 0;
+        }
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            if (reader.getBoardSize() != boardSize || reader.getWinLength() != winLength) {
+                throw new IOException("Arquivo de partidas de outro tabuleiro: " + file.getFileName());
+            }
+            while (reader.next()) {
+                // só avança até a última partida completa
+            }
+            return reader.getPosition();
+        }
+    }
+}
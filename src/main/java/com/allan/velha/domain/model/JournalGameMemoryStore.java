@@ -0,0 +1,113 @@
+package com.allan.velha.domain.model;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.file.Path;
+
+/**
+ * Memória mantida em uma tabela no heap e persistida pelo {@link GameMemoryJournal}.
+ * Sem journal, funciona apenas em memória.
+ * <p>
+ * Leituras e alterações não usam trava: cada célula é marcada ou desmarcada
+ * por compare-and-set, e só a thread que a alterou a registra no journal, que
+ * grava o estado da célula no momento do registro.
+ */
+class JournalGameMemoryStore implements GameMemoryStore {
+    private static final VarHandle CELLS = MethodHandles.arrayElementVarHandle(short[].class);
+
+    private final short[] table = new short[BoardSymmetry.POSITIONS];
+    private final GameMemoryJournal journal;
+    private final boolean fresh;
+
+    /**
+     * Cria uma memória volátil, sem persistência.
+     */
+    JournalGameMemoryStore() {
+        this.journal = null;
+        this.fresh = true;
+    }
+
+    JournalGameMemoryStore(Path directory, String baseName) throws IOException {
+        this.journal = new GameMemoryJournal(directory, baseName);
+        this.fresh = !journal.exists();
+        journal.load(table);
+    }
+
+    @Override
+    public int losingCells(int position) {
+        return (short) CELLS.getAcquire(table, position);
+    }
+
+    @Override
+    public boolean addLosingCell(int position, int cell) {
+        if (!update(position, 1 << cell, true)) {
+            return false;
+        }
+        record(position, cell);
+        return true;
+    }
+
+    @Override
+    public boolean removeLosingCell(int position, int cell) {
+        if (!update(position, 1 << cell, false)) {
+            return false;
+        }
+        record(position, cell);
+        return true;
+    }
+
+    /**
+     * Registra no journal o estado da casa depois da alteração; o journal lê o
+     * valor atual da tabela, e não o da alteração, para não depender da ordem
+     * em que alterações concorrentes da mesma casa chegam até ele.
+     */
+    private void record(int position, int cell) {
+        if (journal != null) {
+            try {
+                journal.append(position, cell, table);
+            } catch (IOException e) {
+                System.err.println("Erro ao salvar memória: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Marca ou desmarca a casa na tabela por compare-and-set.
+     *
+     * @return false se a casa já estava no estado pedido
+     */
+    private boolean update(int position, int bit, boolean set) {
+        short cells;
+        do {
+            cells = (short) CELLS.getAcquire(table, position);
+            if (((cells & bit) != 0) == set) {
+                return false;
+            }
+        } while (!CELLS.compareAndSet(table, position, cells, (short) (set ? cells | bit : cells & ~bit)));
+        return true;
+    }
+
+    @Override
+    public void flush() {
+        if (journal != null) {
+            try {
+                journal.flush();
+            } catch (IOException e) {
+                System.err.println("Erro ao salvar memória: " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public boolean isFresh() {
+        return fresh;
+    }
+
+    @Override
+    public void close() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.allan.velha.domain.model;
+
+import com.allan.velha.domain.metrics.MemoryPersistEvent;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Memória mantida diretamente em um arquivo mapeado em memória.
+ * O arquivo é uma tabela densa de {@link BoardSymmetry#POSITIONS} entradas de
+ * 16 bits indexadas pela posição canônica, precedida de um cabeçalho. A carga
+ * não copia nada para o heap e cada jogada aprendida é uma única escrita no
+ * mapeamento; o sistema operacional grava as páginas alteradas em disco.
+ * <p>
+ * Como não há compare-and-set de 16 bits em buffers, leituras e escritas
+ * atômicas usam o inteiro de 32 bits alinhado que contém a entrada.
+ */
+class MappedGameMemoryStore implements GameMemoryStore {
+    private static final VarHandle WORDS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private static final int MAGIC = 0x56474D54; // "VGMT"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int FILE_BYTES = HEADER_BYTES + BoardSymmetry.POSITIONS * Short.BYTES;
+    /** O mapeamento é arredondado para inteiros de 32 bits completos. */
+    private static final int MAPPED_BYTES = (FILE_BYTES + 3) & ~3;
+
+    private final MappedByteBuffer table;
+    private final boolean fresh;
+
+    MappedGameMemoryStore(Path file) throws IOException {
+        MemoryPersistEvent event = new MemoryPersistEvent();
+        event.begin();
+        Files.createDirectories(file.getParent());
+        long size = Files.exists(file) ? Files.size(file) : 0;
+        // Um arquivo vazio é só uma criação interrompida; outro tamanho não é
+        // desta tabela e não pode ser sobrescrito
+        if (size != 0 && size != FILE_BYTES && size != MAPPED_BYTES) {
+            throw new IOException("Tabela de memória com tamanho inesperado (" + size + " bytes): "
+                    + file.getFileName());
+        }
+        boolean exists = size != 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // O mapeamento continua válido depois que o canal é fechado
+            table = channel.map(FileChannel.MapMode.READ_WRITE, 0, MAPPED_BYTES);
+        }
+        if (exists && (table.getInt(0) != MAGIC || table.getInt(4) != VERSION)) {
+            throw new IOException("Tabela de memória corrompida: " + file.getFileName());
+        }
+        if (!exists) {
+            for (int offset = HEADER_BYTES; offset < MAPPED_BYTES; offset += Short.BYTES) {
+                table.putShort(offset, (short) 0);
+            }
+            table.putInt(0, MAGIC).putInt(4, VERSION);
+        }
+        this.fresh = !exists;
+        MemoryPersistEvent.commit(event, MemoryPersistEvent.LOAD, MAPPED_BYTES);
+    }
+
+    @Override
+    public int losingCells(int position) {
+        int offset = offset(position);
+        return (short) ((int) WORDS.getAcquire(table, offset & ~3) >>> shift(offset));
+    }
+
+    @Override
+    public boolean addLosingCell(int position, int cell) {
+        int offset = offset(position);
+        int word = offset & ~3;
+        int bit = 1 << cell << shift(offset);
+        int current;
+        do {
+            current = (int) WORDS.getAcquire(table, word);
+            if ((current & bit) != 0) {
+                return false;
+            }
+        } while (!WORDS.compareAndSet(table, word, current, current | bit));
+        return true;
+    }
+
+    @Override
+    public boolean removeLosingCell(int position, int cell) {
+        int offset = offset(position);
+        int word = offset & ~3;
+        int bit = 1 << cell << shift(offset);
+        int current;
+        do {
+            current = (int) WORDS.getAcquire(table, word);
+            if ((current & bit) == 0) {
+                return false;
+            }
+        } while (!WORDS.compareAndSet(table, word, current, current & ~bit));
+        return true;
+    }
+
+    @Override
+    public void flush() {
+        // As escritas já estão no mapeamento; o sistema operacional as grava em disco
+    }
+
+    @Override
+    public boolean isFresh() {
+        return fresh;
+    }
+
+    @Override
+    public void close() {
+        table.force();
+    }
+
+    private static int offset(int position) {
+        return HEADER_BYTES + position * Short.BYTES;
+    }
+
+    /**
+     * Em big-endian, a entrada no início do inteiro ocupa os 16 bits mais altos.
+     */
+    private static int shift(int offset) {
+        return (offset & 2) == 0 ? 16 : 0;
+    }
+}
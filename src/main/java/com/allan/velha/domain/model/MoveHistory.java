@@ -0,0 +1,79 @@
+package com.allan.velha.domain.model;
+
+import java.util.Arrays;
+
+/**
+ * Lista compacta de jogadas, guardando apenas o índice da célula de cada uma
+ * ({@code row * size + col}). Tabuleiros de até 16 casas usam meio byte por
+ * jogada, os de até 256 casas um byte, e os maiores dois bytes.
+ */
+public final class MoveHistory {
+    private final int bitsPerMove;
+    private byte[] data;
+    private int size;
+
+    /**
+     * @param cellCount Número de casas do tabuleiro
+     */
+    public MoveHistory(int cellCount) {
+        this.bitsPerMove = cellCount <= 16 ? 4 : cellCount <= 256 ? 8 : 16;
+        this.data = new byte[Math.max(1, bytesFor(cellCount))];
+    }
+
+    public void add(int cell) {
+        int needed = bytesFor(size + 1);
+        if (needed > data.length) {
+            data = Arrays.copyOf(data, Math.max(needed, data.length * 2));
+        }
+        switch (bitsPerMove) {
+            case 4 -> {
+                int shift = (size & 1) << 2;
+                data[size >> 1] = (byte) (data[size >> 1] & ~(0xF << shift) | cell << shift);
+            }
+            case 8 -> data[size] = (byte) cell;
+            default -> {
+                data[size * 2] = (byte) (cell >>> 8);
+                data[size * 2 + 1] = (byte) cell;
+            }
+        }
+        size++;
+    }
+
+    /**
+     * @return Célula da jogada de índice {@code index}
+     */
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Jogada " + index + " de " + size);
+        }
+        return switch (bitsPerMove) {
+            case 4 -> data[index >> 1] >>> ((index & 1) << 2) & 0xF;
+            case 8 -> data[index] & 0xFF;
+            default -> (data[index * 2] & 0xFF) << 8 | data[index * 2 + 1] & 0xFF;
+        };
+    }
+
+    /**
+     * Descarta as jogadas a partir de {@code newSize}.
+     */
+    public void truncate(int newSize) {
+        if (newSize < size) {
+            size = Math.max(0, newSize);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Bits usados por jogada (4, 8 ou 16)
+     */
+    public int getBitsPerMove() {
+        return bitsPerMove;
+    }
+
+    private int bytesFor(int moves) {
+        return (moves * bitsPerMove + 7) / 8;
+    }
+}
@@ -0,0 +1,153 @@
+package com.allan.velha.domain.service;
+
+import com.allan.velha.domain.model.Game;
+import com.allan.velha.domain.model.GameRecordWriter;
+import com.allan.velha.domain.model.Player;
+
+import java.io.IOException;
+
+/**
+ * Sessão de jogo entre um jogador humano (X) e uma IA (O), independente da
+ * interface: usada pela janela JavaFX e pelo servidor sem interface.
+ * <p>
+ * Uma sessão joga várias partidas seguidas. Não é thread-safe: cada sessão
+ * deve ser usada por uma thread de cada vez. O cálculo da jogada da IA
+ * ({@link #computeAIMove(Game)}) não altera o jogo, então pode rodar em outra
+ * thread enquanto a sessão espera, e o resultado é aplicado depois com
+ * {@link #applyAIMove(Game, int[])}.
+ * <p>
+ * Com um {@link GameRecordWriter}, cada partida encerrada é arquivada quando
+ * seu resultado é registrado.
+ */
+public class GameSessionService {
+    private final NeuralNetworkService neuralNetworkService;
+    private final int boardSize;
+    private final int winLength;
+    private final GameRecordWriter recorder;
+    private final Player humanPlayer = new Player("X");
+    private final Player aiPlayer = new Player("O");
+    private Game game;
+
+    /**
+     * @param neuralNetworkService IA que joga com O
+     * @param boardSize            Número de linhas e colunas do tabuleiro
+     * @param winLength            Símbolos alinhados necessários para vencer
+     */
+    public GameSessionService(NeuralNetworkService neuralNetworkService, int boardSize, int winLength) {
+        this(neuralNetworkService, boardSize, winLength, null);
+    }
+
+    /**
+     * @param neuralNetworkService IA que joga com O
+     * @param boardSize            Número de linhas e colunas do tabuleiro
+     * @param winLength            Símbolos alinhados necessários para vencer
+     * @param recorder             Arquivo das partidas encerradas, que pode ser
+     *                             compartilhado entre sessões; pode ser null
+     */
+    public GameSessionService(NeuralNetworkService neuralNetworkService, int boardSize, int winLength,
+            GameRecordWriter recorder) {
+        this.neuralNetworkService = neuralNetworkService;
+        this.boardSize = boardSize;
+        this.winLength = winLength;
+        this.recorder = recorder;
+    }
+
+    /**
+     * Começa uma nova partida.
+     *
+     * @param humanFirst true se o humano (X) faz a primeira jogada
+     * @return O jogo criado
+     */
+    public Game startGame(boolean humanFirst) {
+        // Sempre criamos o jogo com X primeiro e O segundo para manter os símbolos
+        game = new Game(humanPlayer, aiPlayer, boardSize, winLength);
+        if (!humanFirst) {
+            game.setCurrentPlayer(aiPlayer);
+        }
+        return game;
+    }
+
+    public Game getGame() {
+        return game;
+    }
+
+    public boolean isHumanTurn() {
+        return game != null && !game.isGameOver() && game.getCurrentPlayer() == humanPlayer;
+    }
+
+    public boolean isAITurn() {
+        return game != null && !game.isGameOver() && game.getCurrentPlayer() == aiPlayer;
+    }
+
+    /**
+     * Aplica a jogada do humano, se for a vez dele e a casa estiver livre.
+     *
+     * @return true se a jogada foi feita
+     */
+    public boolean playHumanMove(int row, int col) {
+        if (!isHumanTurn() || !game.getBoard().isValidMove(row, col)) {
+            return false;
+        }
+        game.makeMove(row, col);
+        return true;
+    }
+
+    /**
+     * Calcula a jogada da IA, sem aplicá-la.
+     *
+     * @param requestedGame Jogo da sessão para o qual a jogada é pedida
+     * @return Linha e coluna, ou null se não é a vez da IA nesse jogo
+     */
+    public int[] computeAIMove(Game requestedGame) {
+        if (requestedGame.isGameOver() || requestedGame.getCurrentPlayer() != aiPlayer) {
+            return null;
+        }
+        return neuralNetworkService.predictNextMove(requestedGame);
+    }
+
+    /**
+     * Aplica uma jogada calculada por {@link #computeAIMove(Game)}, se o jogo para
+     * o qual ela foi calculada ainda é o atual.
+     *
+     * @return true se a jogada foi feita
+     */
+    public boolean applyAIMove(Game requestedGame, int[] move) {
+        if (requestedGame != game || move == null || !isAITurn() || !game.getBoard().isValidMove(move[0], move[1])) {
+            return false;
+        }
+        game.makeMove(move[0], move[1]);
+        return true;
+    }
+
+    /**
+     * Calcula e aplica a jogada da IA.
+     *
+     * @return A jogada feita, ou null se não é a vez da IA
+     */
+    public int[] playAIMove() {
+        Game current = game;
+        int[] move = current != null ? computeAIMove(current) : null;
+        return applyAIMove(current, move) ? move : null;
+    }
+
+    /**
+     * Entrega à IA o resultado de uma partida encerrada, para que ela aprenda
+     * com a derrota, e a arquiva. Pode ser chamado depois que outra partida já começou.
+     */
+    public void registerGameResult(Game finishedGame) {
+        if (finishedGame.isGameOver()) {
+            neuralNetworkService.registerGameResult(finishedGame);
+            if (recorder != null) {
+                try {
+                    recorder.write(finishedGame);
+                } catch (IOException e) {
+                    System.err.println("Erro ao arquivar a partida: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    public NeuralNetworkService getNeuralNetworkService() {
+        return neuralNetworkService;
+    }
+}
@@ -2,6 +2,66 @@ package com.allan.velha.domain.service;
 
 import com.allan.velha.domain.model.Game;
 
-public interface NeuralNetworkService {
+public interface NeuralNetworkService extends AutoCloseable {
     int[] predictNextMove(Game game);
-}
\ No newline at end of file
+
+    /**
+     * Escolhe a jogada de várias partidas em uma só chamada, para que a IA
+     * compartilhe a preparação entre elas e evite alocar por jogada. As partidas
+     * devem ser distintas e ter uma jogada pendente para o lado a jogar. Por
+     * padrão chama {@link #predictNextMove(Game)} para cada partida.
+     *
+     * @param games Partidas; só as {@code count} primeiras são usadas
+     * @param count Número de partidas
+     * @param moves Recebe, para cada partida, a casa escolhida ({@code linha * tamanho + coluna})
+     *              ou -1 se não há jogada
+     */
+    default void predictNextMoves(Game[] games, int count, int[] moves) {
+        for (int i = 0; i < count; i++) {
+            int[] move = predictNextMove(games[i]);
+            moves[i] = move == null ? -1 : move[0] * games[i].getBoard().getSize() + move[1];
+        }
+    }
+
+    /**
+     * Informa o resultado de uma partida encerrada, para IAs que aprendem com
+     * as derrotas. Por padrão não faz nada.
+     */
+    default void registerGameResult(Game game) {
+    }
+
+    /**
+     * Começa a pensar em segundo plano durante a vez do adversário, guardando o
+     * resultado para acelerar a próxima chamada de {@link #predictNextMove(Game)}.
+     * O tabuleiro é copiado antes de retornar, então o jogo pode continuar sendo
+     * alterado. Por padrão não faz nada.
+     *
+     * @param game Jogo em que é a vez do adversário
+     */
+    default void startPondering(Game game) {
+    }
+
+    /**
+     * Interrompe a busca iniciada por {@link #startPondering(Game)} e aguarda
+     * seu término. Por padrão não faz nada.
+     */
+    default void stopPondering() {
+    }
+
+    /**
+     * Pede que a chamada de {@link #predictNextMove(Game)} em andamento em outra
+     * thread termine logo, com a melhor jogada encontrada até ali. Para IAs que
+     * buscam até um prazo e não observam a interrupção da thread. Por padrão
+     * não faz nada.
+     */
+    default void cancelSearch() {
+    }
+
+    /**
+     * Libera os recursos da IA, gravando o que ela ainda tiver pendente.
+     * Por padrão não faz nada.
+     */
+    @Override
+    default void close() {
+    }
+}
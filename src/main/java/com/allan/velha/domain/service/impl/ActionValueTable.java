@@ -0,0 +1,182 @@
+package com.allan.velha.domain.service.impl;
+
+import com.allan.velha.domain.model.Board;
+import com.allan.velha.domain.model.BoardSymmetry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Tabela de valores de ação (Q) para o tabuleiro 3x3, indexada por
+ * {@code posiçãoCanônica * 9 + célulaCanônica}. As posições são vistas sempre
+ * pelo lado a jogar: a máscara "própria" é a de quem joga e a "adversária", a
+ * do outro lado, então X e O compartilham os mesmos valores.
+ * <p>
+ * O valor estima o resultado da jogada para quem a faz: 1 para vitória, 0 para
+ * empate e -1 para derrota. O tamanho é fixo ({@link BoardSymmetry#POSITIONS} * 9
+ * floats), qualquer que seja o número de partidas aprendidas.
+ * <p>
+ * Escritas concorrentes não usam trava: atualizações simultâneas da mesma
+ * entrada podem se perder, o que só atrasa o aprendizado.
+ */
+final class ActionValueTable {
+    static final int ENTRIES = BoardSymmetry.POSITIONS * BoardSymmetry.CELLS;
+
+    private static final int MAGIC = 0x56475154; // "VGQT"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 12;
+
+    private final float[] values;
+
+    ActionValueTable() {
+        this.values = new float[ENTRIES];
+    }
+
+    private ActionValueTable(float[] values) {
+        this.values = values;
+    }
+
+    /**
+     * @return Cópia independente da tabela
+     */
+    ActionValueTable copy() {
+        return new ActionValueTable(values.clone());
+    }
+
+    /**
+     * Escolhe a jogada de maior valor para o lado a jogar.
+     *
+     * @param own      Máscara das células de quem joga
+     * @param opponent Máscara das células do adversário
+     * @return Célula no referencial original, ou -1 se não há casa livre
+     */
+    int bestCell(int own, int opponent) {
+        int key = BoardSymmetry.canonicalKey(own, opponent);
+        int symmetry = BoardSymmetry.symmetryOf(key);
+        int base = BoardSymmetry.positionOf(key) * BoardSymmetry.CELLS;
+        int empty = ~BoardSymmetry.transformMask(symmetry, own | opponent) & 0x1FF;
+        int bestCell = -1;
+        float best = Float.NEGATIVE_INFINITY;
+        for (; empty != 0; empty &= empty - 1) {
+            int cell = Integer.numberOfTrailingZeros(empty);
+            float value = values[base + cell];
+            if (value > best) {
+                best = value;
+                bestCell = cell;
+            }
+        }
+        return bestCell < 0 ? -1 : BoardSymmetry.inverseTransformCell(symmetry, bestCell);
+    }
+
+    /**
+     * @return Maior valor entre as jogadas livres, ou 0 se não há casa livre
+     */
+    float maxValue(int own, int opponent) {
+        int key = BoardSymmetry.canonicalKey(own, opponent);
+        int base = BoardSymmetry.positionOf(key) * BoardSymmetry.CELLS;
+        int empty = ~BoardSymmetry.transformMask(BoardSymmetry.symmetryOf(key), own | opponent) & 0x1FF;
+        float best = empty == 0 ? 0 : Float.NEGATIVE_INFINITY;
+        for (; empty != 0; empty &= empty - 1) {
+            best = Math.max(best, values[base + Integer.numberOfTrailingZeros(empty)]);
+        }
+        return best;
+    }
+
+    /**
+     * Aproxima o valor da jogada do alvo: {@code Q += alpha * (alvo - Q)}.
+     * Em posições simétricas, todas as células equivalentes recebem o novo valor.
+     *
+     * @param cell Célula jogada, no referencial original
+     */
+    void update(int own, int opponent, int cell, float target, float alpha) {
+        int base = BoardSymmetry.positionOf(BoardSymmetry.canonicalKey(own, opponent)) * BoardSymmetry.CELLS;
+        int symmetries = BoardSymmetry.canonicalSymmetries(own, opponent);
+        int first = base + BoardSymmetry.transformCell(Integer.numberOfTrailingZeros(symmetries), cell);
+        float value = values[first] + alpha * (target - values[first]);
+        for (; symmetries != 0; symmetries &= symmetries - 1) {
+            values[base + BoardSymmetry.transformCell(Integer.numberOfTrailingZeros(symmetries), cell)] = value;
+        }
+    }
+
+    /**
+     * Aplica uma jogada e atualiza seu valor pela regra do Q-learning em negamax:
+     * o alvo é a recompensa da jogada ou, se a partida continua, o valor da
+     * melhor resposta do adversário com sinal trocado e descontado por {@code gamma}.
+     *
+     * @return Máscara própria depois da jogada
+     */
+    int learnMove(int own, int opponent, int cell, float alpha, float gamma) {
+        int after = own | 1 << cell;
+        float target;
+        if (Board.isWinningMask(after)) {
+            target = 1;
+        } else if ((after | opponent) == 0x1FF) {
+            target = 0;
+        } else {
+            target = -gamma * maxValue(opponent, after);
+        }
+        update(own, opponent, cell, target, alpha);
+        return after;
+    }
+
+    /**
+     * Substitui esta tabela pela média das tabelas dos trabalhadores.
+     */
+    void average(ActionValueTable[] workers) {
+        float scale = 1f / workers.length;
+        for (int i = 0; i < ENTRIES; i++) {
+            float sum = 0;
+            for (ActionValueTable worker : workers) {
+                sum += worker.values[i];
+            }
+            values[i] = sum * scale;
+        }
+    }
+
+    /**
+     * Copia os valores de outra tabela.
+     */
+    void copyFrom(ActionValueTable other) {
+        System.arraycopy(other.values, 0, values, 0, ENTRIES);
+    }
+
+    /**
+     * Grava a tabela em um arquivo temporário e o move sobre o destino, para
+     * que uma gravação interrompida não corrompa a tabela anterior.
+     */
+    void save(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + ENTRIES * Float.BYTES).order(ByteOrder.BIG_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(ENTRIES);
+        buffer.asFloatBuffer().put(values);
+        buffer.rewind();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Lê uma tabela gravada por {@link #save(Path)}.
+     */
+    static ActionValueTable load(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.BIG_ENDIAN);
+        if (buffer.remaining() != HEADER_BYTES + ENTRIES * Float.BYTES || buffer.getInt() != MAGIC
+                || buffer.getInt() != VERSION || buffer.getInt() != ENTRIES) {
+            throw new IOException("Tabela de valores inválida: " + file.getFileName());
+        }
+        float[] values = new float[ENTRIES];
+        buffer.asFloatBuffer().get(values);
+        return new ActionValueTable(values);
+    }
+}
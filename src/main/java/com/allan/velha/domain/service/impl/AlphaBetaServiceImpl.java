@@ -0,0 +1,529 @@
+package com.allan.velha.domain.service.impl;
+
+import com.allan.velha.domain.metrics.PredictionEvent;
+import com.allan.velha.domain.model.Board;
+import com.allan.velha.domain.model.Game;
+import com.allan.velha.domain.service.NeuralNetworkService;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+
+/**
+ * IA de busca: negamax com poda alfa-beta, aprofundamento iterativo limitado por
+ * um prazo por jogada e tabela de transposição de tamanho fixo em arrays primitivos.
+ * <p>
+ * As jogadas são ordenadas pela jogada da tabela de transposição e depois pela
+ * prioridade estática do tabuleiro: centro, cantos e bordas no 3x3 (como os
+ * pontos quentes da {@link NeuralNetworkServiceImpl}) e proximidade do centro
+ * nos maiores. Em tabuleiros grandes só são consideradas casas vizinhas a peças
+ * já jogadas, e a profundidade máxima é avaliada por uma heurística de janelas.
+ * <p>
+ * Com {@link #startPondering(Game)} a busca continua durante a vez do
+ * adversário: uma thread prevê a resposta dele e busca a posição resultante,
+ * enchendo a tabela de transposição. Se o adversário jogar a resposta prevista,
+ * o tempo já gasto é descontado do prazo da próxima jogada.
+ * <p>
+ * Configuração (propriedades de sistema): {@code velha.search.timeMs} (prazo por
+ * jogada, padrão 1000) e {@code velha.search.ttBits} (log2 das entradas da
+ * tabela, padrão 20).
+ */
+public class AlphaBetaServiceImpl implements NeuralNetworkService {
+    private static final int WIN = 1_000_000;
+    private static final int MATE_BOUND = WIN - 10_000;
+    private static final int INFINITY = WIN + 1;
+    private static final int EXACT = 0;
+    private static final int LOWER = 1;
+    private static final int UPPER = 2;
+    /** Tabuleiros até este número de casas consideram todas as jogadas. */
+    private static final int FULL_WIDTH_CELLS = 16;
+    private static final int[] CLASSIC_ORDER = { 4, 0, 2, 6, 8, 1, 3, 5, 7 };
+    private static final int[][] DIRECTIONS = { { 0, 1 }, { 1, 0 }, { 1, 1 }, { 1, -1 } };
+
+    private final long timeBudgetNanos;
+    /**
+     * Tabela de transposição sem travas. Cada entrada empacota em um long o valor
+     * (22 bits), a profundidade (8), o tipo de limite (2) e a melhor jogada + 1 (16).
+     * A chave é guardada como {@code hash ^ dados}, então uma entrada rasgada por
+     * escritas concorrentes simplesmente não confere.
+     */
+    private final long[] ttKeys;
+    private final long[] ttData;
+    private final int ttMask;
+    private int tableSize;
+    private long[] zobrist;
+    private long sideKey;
+    private int[] staticOrder;
+    private SearchStatistics lastStatistics;
+    private Thread ponderThread;
+    private Searcher ponderSearcher;
+    /** Busca de {@link #predictNextMove(Game)} em andamento, para {@link #cancelSearch()}. */
+    private volatile Searcher activeSearcher;
+
+    public AlphaBetaServiceImpl() {
+        this(Long.getLong("velha.search.timeMs", 1000L), Integer.getInteger("velha.search.ttBits", 20));
+    }
+
+    /**
+     * @param timeBudgetMillis Prazo de busca por jogada
+     * @param ttBits           log2 do número de entradas da tabela de transposição
+     */
+    public AlphaBetaServiceImpl(long timeBudgetMillis, int ttBits) {
+        this.timeBudgetNanos = timeBudgetMillis * 1_000_000L;
+        this.ttKeys = new long[1 << ttBits];
+        this.ttData = new long[1 << ttBits];
+        this.ttMask = (1 << ttBits) - 1;
+    }
+
+    @Override
+    public int[] predictNextMove(Game game) {
+        PredictionEvent event = new PredictionEvent();
+        event.begin();
+        Board board = game.getBoard();
+        Searcher pondered = finishPondering();
+        if (game.isGameOver() || board.isFull()) {
+            return null;
+        }
+        prepare(board.getSize());
+        Searcher searcher = new Searcher(board, game.getCurrentSymbol());
+        long budget = timeBudgetNanos;
+        if (pondered != null && pondered.completedDepth > 0 && pondered.side == searcher.side
+                && Arrays.equals(pondered.cells, searcher.cells)) {
+            // O adversário jogou a resposta prevista: a posição já vinha sendo buscada
+            if (pondered.solved || pondered.elapsedNanos >= budget) {
+                lastStatistics = pondered.statistics();
+                PredictionEvent.commit(event, "alphabeta", pondered.bestMove, "PONDER_HIT");
+                return new int[] { pondered.bestMove / board.getSize(), pondered.bestMove % board.getSize() };
+            }
+            budget -= pondered.elapsedNanos;
+        }
+        activeSearcher = searcher;
+        int cell;
+        try {
+            cell = searcher.search(System.nanoTime() + budget);
+        } finally {
+            activeSearcher = null;
+        }
+        lastStatistics = searcher.statistics();
+        PredictionEvent.commit(event, "alphabeta", cell, "SEARCH");
+        return new int[] { cell / board.getSize(), cell % board.getSize() };
+    }
+
+    @Override
+    public synchronized void startPondering(Game game) {
+        finishPondering();
+        Board board = game.getBoard();
+        if (game.isGameOver() || board.isFull()) {
+            return;
+        }
+        prepare(board.getSize());
+        Searcher searcher = new Searcher(board, game.getCurrentSymbol());
+        Thread thread = new Thread(() -> ponder(searcher), "alphabeta-ponder");
+        thread.setDaemon(true);
+        ponderSearcher = searcher;
+        ponderThread = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stopPondering() {
+        finishPondering();
+    }
+
+    @Override
+    public void cancelSearch() {
+        Searcher searcher = activeSearcher;
+        if (searcher != null) {
+            searcher.stopRequested = true;
+        }
+    }
+
+    @Override
+    public void close() {
+        finishPondering();
+    }
+
+    /**
+     * Prevê a resposta do adversário com parte do prazo e busca a posição
+     * resultante até ser interrompida ou resolvê-la.
+     */
+    private void ponder(Searcher searcher) {
+        int reply = searcher.search(System.nanoTime() + timeBudgetNanos / 4);
+        if (searcher.stopRequested) {
+            return;
+        }
+        searcher.play(reply);
+        if (searcher.completesLine(reply) || searcher.filled == searcher.cellCount) {
+            searcher.completedDepth = 0; // a resposta encerra o jogo: nada a buscar
+            return;
+        }
+        searcher.search(Long.MAX_VALUE);
+    }
+
+    /**
+     * Interrompe a thread de pondering, se houver, e aguarda seu término.
+     *
+     * @return Busca feita durante a vez do adversário, ou null
+     */
+    private synchronized Searcher finishPondering() {
+        Thread thread = ponderThread;
+        if (thread == null) {
+            return null;
+        }
+        Searcher searcher = ponderSearcher;
+        ponderThread = null;
+        ponderSearcher = null;
+        searcher.stopRequested = true;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        return searcher;
+    }
+
+    /**
+     * @return Estatísticas da última busca, ou null se nenhuma foi feita
+     */
+    public SearchStatistics getLastStatistics() {
+        return lastStatistics;
+    }
+
+    /**
+     * Gera as chaves Zobrist e a ordem estática para o tamanho do tabuleiro,
+     * descartando a tabela de transposição se o tamanho mudou.
+     */
+    private void prepare(int size) {
+        if (size == tableSize) {
+            return;
+        }
+        int cells = size * size;
+        SplittableRandom random = new SplittableRandom(0x5EEDL + size);
+        long[] keys = new long[cells * 2];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+        }
+        Arrays.fill(ttKeys, 0);
+        Arrays.fill(ttData, 0);
+        sideKey = random.nextLong();
+        zobrist = keys;
+        staticOrder = size == Board.DEFAULT_SIZE ? CLASSIC_ORDER : centerOrder(size);
+        tableSize = size;
+    }
+
+    private static int[] centerOrder(int size) {
+        Integer[] cells = new Integer[size * size];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = i;
+        }
+        double center = (size - 1) / 2.0;
+        Arrays.sort(cells, Comparator.comparingDouble(cell -> {
+            double dr = cell / size - center;
+            double dc = cell % size - center;
+            return dr * dr + dc * dc;
+        }));
+        int[] order = new int[cells.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = cells[i];
+        }
+        return order;
+    }
+
+    private static int scoreToTable(int score, int ply) {
+        if (score > MATE_BOUND) {
+            return score + ply;
+        }
+        return score < -MATE_BOUND ? score - ply : score;
+    }
+
+    private static int scoreFromTable(int score, int ply) {
+        if (score > MATE_BOUND) {
+            return score - ply;
+        }
+        return score < -MATE_BOUND ? score + ply : score;
+    }
+
+    /**
+     * Estado de uma busca: cópia primitiva do tabuleiro e buffers de jogadas por
+     * profundidade, para que a busca não aloque.
+     */
+    private final class Searcher {
+        private final int size;
+        private final int cellCount;
+        private final int winLength;
+        private final boolean fullWidth;
+        private final byte[] cells;
+        private final int[][] moveBuffers;
+        private final long[] keys = zobrist;
+        private final int[] order = staticOrder;
+        private long hash;
+        private int side;
+        private int filled;
+        private long nodes;
+        private long probes;
+        private long hits;
+        private long deadline;
+        private boolean aborted;
+        private volatile boolean stopRequested;
+        private int rootBest = -1;
+        private int bestMove = -1;
+        private int completedDepth;
+        private boolean solved;
+        private long startNanos;
+        private long elapsedNanos;
+
+        Searcher(Board board, char symbol) {
+            this.size = board.getSize();
+            this.cellCount = size * size;
+            this.winLength = board.getWinLength();
+            this.fullWidth = cellCount <= FULL_WIDTH_CELLS;
+            this.cells = new byte[cellCount];
+            for (int cell = 0; cell < cellCount; cell++) {
+                char value = board.getCell(cell / size, cell % size);
+                if (value != ' ') {
+                    cells[cell] = (byte) (value == 'X' ? 1 : 2);
+                    hash ^= keys[cell * 2 + cells[cell] - 1];
+                    filled++;
+                }
+            }
+            this.side = symbol == 'X' ? 1 : 2;
+            if (side == 2) {
+                hash ^= sideKey;
+            }
+            this.moveBuffers = new int[cellCount - filled + 1][cellCount];
+        }
+
+        /**
+         * Aprofunda a busca até resolver a posição ou esgotar o prazo.
+         *
+         * @return Melhor célula encontrada
+         */
+        int search(long deadline) {
+            this.deadline = deadline;
+            this.startNanos = System.nanoTime();
+            aborted = false;
+            solved = false;
+            completedDepth = 0;
+            nodes = 0;
+            probes = 0;
+            hits = 0;
+            int best = -1;
+            int maxDepth = cellCount - filled;
+            for (int depth = 1; depth <= maxDepth; depth++) {
+                int score = negamax(depth, -INFINITY, INFINITY, 0, -1);
+                if (aborted) {
+                    break;
+                }
+                best = rootBest;
+                completedDepth = depth;
+                if (Math.abs(score) > MATE_BOUND || depth == maxDepth) {
+                    solved = true;
+                    break;
+                }
+            }
+            elapsedNanos = System.nanoTime() - startNanos;
+            // Sem nenhuma iteração completa, usa a primeira jogada candidata
+            bestMove = best >= 0 ? best : moveBuffers[0][0];
+            return bestMove;
+        }
+
+        SearchStatistics statistics() {
+            return new SearchStatistics(nodes, elapsedNanos, probes, hits, completedDepth);
+        }
+
+        private int negamax(int depth, int alpha, int beta, int ply, int lastCell) {
+            if ((++nodes & 1023) == 0 && (System.nanoTime() > deadline || stopRequested)) {
+                aborted = true;
+            }
+            if (aborted) {
+                return 0;
+            }
+            if (lastCell >= 0 && completesLine(lastCell)) {
+                return -(WIN - ply);
+            }
+            if (filled == cellCount) {
+                return 0;
+            }
+            if (depth == 0) {
+                return evaluate();
+            }
+
+            int index = (int) hash & ttMask;
+            int ttMove = -1;
+            probes++;
+            long data = ttData[index];
+            if ((ttKeys[index] ^ data) == hash && data != 0) {
+                hits++;
+                ttMove = (int) (data >>> 32 & 0xFFFF) - 1;
+                int entryDepth = (int) (data >>> 22 & 0xFF);
+                if (entryDepth >= depth && ply > 0) {
+                    int score = scoreFromTable(unpackScore(data), ply);
+                    int flag = (int) (data >>> 30 & 3);
+                    if (flag == EXACT) {
+                        return score;
+                    }
+                    if (flag == LOWER) {
+                        alpha = Math.max(alpha, score);
+                    } else {
+                        beta = Math.min(beta, score);
+                    }
+                    if (alpha >= beta) {
+                        return score;
+                    }
+                }
+            }
+
+            int alphaOriginal = alpha;
+            int[] moves = moveBuffers[ply];
+            int count = generateMoves(moves, ttMove);
+            int best = -INFINITY;
+            int bestMove = moves[0];
+            for (int i = 0; i < count; i++) {
+                int cell = moves[i];
+                play(cell);
+                int score = -negamax(depth - 1, -beta, -alpha, ply + 1, cell);
+                undo(cell);
+                if (aborted) {
+                    return 0;
+                }
+                if (score > best) {
+                    best = score;
+                    bestMove = cell;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                }
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+
+            if (ply == 0) {
+                rootBest = bestMove;
+            }
+            int flag = best <= alphaOriginal ? UPPER : best >= beta ? LOWER : EXACT;
+            store(index, depth, flag, scoreToTable(best, ply), bestMove);
+            return best;
+        }
+
+        private void store(int index, int depth, int flag, int score, int move) {
+            long data = ((long) (move + 1) << 32) | ((long) flag << 30) | ((long) depth << 22) | (score + INFINITY);
+            ttData[index] = data;
+            ttKeys[index] = hash ^ data;
+        }
+
+        /**
+         * Preenche o buffer com as jogadas candidatas na ordem de busca.
+         *
+         * @return Número de jogadas
+         */
+        private int generateMoves(int[] moves, int ttMove) {
+            int count = 0;
+            if (ttMove >= 0 && cells[ttMove] == 0) {
+                moves[count++] = ttMove;
+            }
+            for (int cell : order) {
+                if (cells[cell] == 0 && cell != ttMove && (fullWidth || filled == 0 || hasNeighbor(cell))) {
+                    moves[count++] = cell;
+                    if (filled == 0 && !fullWidth) {
+                        break; // tabuleiro grande vazio: basta o centro
+                    }
+                }
+            }
+            return count;
+        }
+
+        private boolean hasNeighbor(int cell) {
+            int row = cell / size;
+            int col = cell % size;
+            for (int r = Math.max(0, row - 1); r <= Math.min(size - 1, row + 1); r++) {
+                for (int c = Math.max(0, col - 1); c <= Math.min(size - 1, col + 1); c++) {
+                    if (cells[r * size + c] != 0) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private void play(int cell) {
+            cells[cell] = (byte) side;
+            hash ^= keys[cell * 2 + side - 1] ^ sideKey;
+            side = 3 - side;
+            filled++;
+        }
+
+        private void undo(int cell) {
+            filled--;
+            side = 3 - side;
+            hash ^= keys[cell * 2 + side - 1] ^ sideKey;
+            cells[cell] = 0;
+        }
+
+        private boolean completesLine(int cell) {
+            byte value = cells[cell];
+            int row = cell / size;
+            int col = cell % size;
+            for (int[] direction : DIRECTIONS) {
+                int count = 1 + count(value, row, col, direction[0], direction[1])
+                        + count(value, row, col, -direction[0], -direction[1]);
+                if (count >= winLength) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int count(byte value, int row, int col, int dRow, int dCol) {
+            int count = 0;
+            int r = row + dRow;
+            int c = col + dCol;
+            while (count < winLength - 1 && r >= 0 && r < size && c >= 0 && c < size && cells[r * size + c] == value) {
+                count++;
+                r += dRow;
+                c += dCol;
+            }
+            return count;
+        }
+
+        /**
+         * Avalia a posição para quem joga somando as janelas de {@code winLength}
+         * casas ainda vencíveis por um só lado, com peso crescente por peça.
+         */
+        private int evaluate() {
+            int score = 0;
+            for (int cell = 0; cell < cellCount; cell++) {
+                int row = cell / size;
+                int col = cell % size;
+                for (int[] direction : DIRECTIONS) {
+                    int endRow = row + direction[0] * (winLength - 1);
+                    int endCol = col + direction[1] * (winLength - 1);
+                    if (endRow >= size || endCol < 0 || endCol >= size) {
+                        continue;
+                    }
+                    int own = 0;
+                    int opponent = 0;
+                    for (int i = 0; i < winLength; i++) {
+                        byte value = cells[(row + direction[0] * i) * size + col + direction[1] * i];
+                        if (value == side) {
+                            own++;
+                        } else if (value != 0) {
+                            opponent++;
+                        }
+                    }
+                    if (opponent == 0 && own > 0) {
+                        score += 1 << Math.min(2 * own, 16);
+                    } else if (own == 0 && opponent > 0) {
+                        score -= 1 << Math.min(2 * opponent, 16);
+                    }
+                }
+            }
+            return score;
+        }
+    }
+
+    private static int unpackScore(long data) {
+        return (int) (data & 0x3F_FFFF) - INFINITY;
+    }
+}
@@ -0,0 +1,189 @@
+package com.allan.velha.domain.service.impl;
+
+import com.allan.velha.domain.model.Game;
+import com.allan.velha.domain.model.GameMemory;
+import com.allan.velha.domain.model.Player;
+import com.allan.velha.domain.service.NeuralNetworkService;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cria a IA em segundo plano, para que a janela apareça sem esperar a carga da
+ * memória de jogadas ou das tabelas e pesos (que podem até ser treinados na
+ * primeira execução). Até a IA ficar pronta, as jogadas são escolhidas pela IA
+ * heurística sem memória, e as partidas encerradas nesse meio tempo não são
+ * aprendidas.
+ * <p>
+ * Depois de carregada, a IA pode ser aquecida antes de assumir o jogo:
+ * uma instância descartável joga partidas contra si mesma durante o tempo
+ * configurado, para que o JIT compile os caminhos quentes antes da primeira
+ * jogada de verdade. Essas partidas não são registradas.
+ * <p>
+ * O tempo até a IA ficar pronta e até a primeira jogada (desde o início da JVM)
+ * são impressos na saída padrão.
+ * <p>
+ * {@link #close()} não espera uma carga demorada (como o treino na primeira
+ * execução): a IA é fechada pela própria thread de carga quando terminar, se a
+ * JVM ainda estiver rodando.
+ */
+public class DeferredServiceImpl implements NeuralNetworkService {
+    /** Espera máxima pela carga ao fechar. */
+    private static final long CLOSE_WAIT_MILLIS = 1000;
+
+    private final String engine;
+    private final int boardSize;
+    private final int winLength;
+    private final long warmupMillis;
+    private final NeuralNetworkService fallback = new NeuralNetworkServiceImpl(null, new Random());
+    private final Thread loader;
+    private volatile NeuralNetworkService loaded;
+    private volatile boolean closed;
+    private boolean firstMoveReported;
+
+    /**
+     * Começa a criar a IA em uma thread própria.
+     *
+     * @param engine       Nome da IA, como em {@link NeuralNetworkServiceFactory#create(String)}
+     * @param boardSize    Tamanho do tabuleiro usado no aquecimento
+     * @param winLength    Símbolos alinhados para vencer no aquecimento
+     * @param warmupMillis Duração do aquecimento; 0 desliga
+     */
+    public DeferredServiceImpl(String engine, int boardSize, int winLength, long warmupMillis) {
+        this.engine = engine;
+        this.boardSize = boardSize;
+        this.winLength = winLength;
+        this.warmupMillis = warmupMillis;
+        this.loader = new Thread(this::load, "velha-engine-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * @return true quando a IA configurada já assumiu as jogadas
+     */
+    public boolean isReady() {
+        return loaded != null;
+    }
+
+    @Override
+    public int[] predictNextMove(Game game) {
+        NeuralNetworkService service = current();
+        int[] move = service.predictNextMove(game);
+        if (!firstMoveReported) {
+            firstMoveReported = true;
+            System.out.printf("Primeira jogada da IA em %d ms desde o início (%s)%n",
+                    ManagementFactory.getRuntimeMXBean().getUptime(), service == fallback ? "sem memória" : engine);
+        }
+        return move;
+    }
+
+    @Override
+    public void predictNextMoves(Game[] games, int count, int[] moves) {
+        current().predictNextMoves(games, count, moves);
+    }
+
+    @Override
+    public void registerGameResult(Game game) {
+        current().registerGameResult(game);
+    }
+
+    @Override
+    public void startPondering(Game game) {
+        current().startPondering(game);
+    }
+
+    @Override
+    public void stopPondering() {
+        current().stopPondering();
+    }
+
+    @Override
+    public void cancelSearch() {
+        current().cancelSearch();
+    }
+
+    /**
+     * Fecha a IA, gravando o que ela tiver pendente. Espera a carga por até
+     * {@value #CLOSE_WAIT_MILLIS} ms; se ela ainda não terminou, a thread de
+     * carga fecha a IA ao criá-la, sem que ela assuma as jogadas.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            loader.join(CLOSE_WAIT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (loaded != null) {
+                loaded.close();
+            }
+        }
+        fallback.close();
+    }
+
+    private NeuralNetworkService current() {
+        NeuralNetworkService service = loaded;
+        return service != null ? service : fallback;
+    }
+
+    private void load() {
+        long start = System.nanoTime();
+        NeuralNetworkService service;
+        try {
+            service = NeuralNetworkServiceFactory.create(engine);
+        } catch (RuntimeException e) {
+            System.err.println("Erro ao carregar a IA " + engine + ": " + e.getMessage() + ". Usando IA sem memória.");
+            return;
+        }
+        long loadMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        int games = warmupMillis > 0 && !closed ? warmUp() : 0;
+        synchronized (this) {
+            if (closed) {
+                // close() já passou sem esperar esta carga
+                service.close();
+                return;
+            }
+            loaded = service;
+        }
+        System.out.printf("IA %s pronta em %d ms (carga %d ms, aquecimento com %d partidas)%n", engine,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), loadMillis, games);
+    }
+
+    /**
+     * Joga partidas descartáveis até esgotar o tempo de aquecimento.
+     *
+     * @return Partidas jogadas
+     */
+    private int warmUp() {
+        // A IA heurística usa a memória compartilhada, que a IA criada já carregou
+        GameMemory memory = engine.equals("heuristic") ? GameMemory.shared() : null;
+        Player x = new Player("X");
+        Player o = new Player("O");
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(warmupMillis);
+        int games = 0;
+        try (NeuralNetworkService service = NeuralNetworkServiceFactory.create(engine, 42, memory)) {
+            while (System.nanoTime() < deadline && !closed) {
+                Game game = new Game(x, o, boardSize, winLength);
+                while (!game.isGameOver() && System.nanoTime() < deadline) {
+                    int[] move = service.predictNextMove(game);
+                    if (move == null) {
+                        break;
+                    }
+                    game.makeMove(move[0], move[1]);
+                }
+                games++;
+            }
+        } catch (RuntimeException e) {
+            // A IA não joga neste tabuleiro; o erro aparece na primeira jogada de verdade
+        } finally {
+            if (memory != null) {
+                memory.close();
+            }
+        }
+        return games;
+    }
+}
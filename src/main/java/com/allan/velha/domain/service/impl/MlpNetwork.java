@@ -0,0 +1,195 @@
+package com.allan.velha.domain.service.impl;
+
+import com.allan.velha.domain.model.BoardSymmetry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+/**
+ * Rede neural de política e valor para o tabuleiro 3x3: uma camada oculta com
+ * ReLU, 9 saídas de política (uma por célula) e uma saída de valor (tanh).
+ * <p>
+ * A entrada são as 18 casas ocupadas, 9 de quem joga e 9 do adversário, já
+ * levadas à forma canônica por {@link BoardSymmetry}. Como a entrada é binária,
+ * a primeira camada soma apenas as colunas das casas ocupadas.
+ * <p>
+ * Todos os pesos ficam em um único {@code float[]}:
+ * <ul>
+ * <li>{@code W1[entrada * hidden + h]} - pesos da camada oculta, coluna por entrada</li>
+ * <li>{@code B1[h]}</li>
+ * <li>{@code W2[saída * hidden + h]} - pesos das 10 saídas, linha por saída</li>
+ * <li>{@code B2[saída]}</li>
+ * </ul>
+ * A rede é imutável durante a inferência e pode ser compartilhada entre
+ * threads; cada thread usa seu próprio {@link Scratch}.
+ */
+final class MlpNetwork {
+    static final int INPUTS = 18;
+    static final int OUTPUTS = BoardSymmetry.CELLS + 1;
+    static final int VALUE = BoardSymmetry.CELLS;
+
+    private static final int MAGIC = 0x56474E4E; // "VGNN"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+
+    final int hidden;
+    final float[] weights;
+    final int b1;
+    final int w2;
+    final int b2;
+
+    MlpNetwork(int hidden, long seed) {
+        this(hidden, new float[parameterCount(hidden)]);
+        // Inicialização de He para a camada oculta, pequena para as saídas
+        SplittableRandom random = new SplittableRandom(seed);
+        float scale1 = (float) Math.sqrt(2.0 / INPUTS);
+        for (int i = 0; i < b1; i++) {
+            weights[i] = (float) (random.nextGaussian() * scale1);
+        }
+        float scale2 = (float) Math.sqrt(1.0 / hidden);
+        for (int i = w2; i < b2; i++) {
+            weights[i] = (float) (random.nextGaussian() * scale2);
+        }
+    }
+
+    private MlpNetwork(int hidden, float[] weights) {
+        this.hidden = hidden;
+        this.weights = weights;
+        this.b1 = INPUTS * hidden;
+        this.w2 = b1 + hidden;
+        this.b2 = w2 + OUTPUTS * hidden;
+    }
+
+    static int parameterCount(int hidden) {
+        return INPUTS * hidden + hidden + OUTPUTS * hidden + OUTPUTS;
+    }
+
+    /**
+     * Avalia uma posição já no referencial canônico, sem alocar.
+     *
+     * @param own      Máscara de quem joga
+     * @param opponent Máscara do adversário
+     * @param scratch  Buffers da thread; ao retornar, {@code scratch.outputs}
+     *                 contém os logits da política e o valor em {@link #VALUE}
+     */
+    void forward(int own, int opponent, Scratch scratch) {
+        float[] w = weights;
+        float[] h = scratch.hidden;
+        int n = hidden;
+        System.arraycopy(w, b1, h, 0, n);
+        int inputs = own | opponent << 9;
+        for (; inputs != 0; inputs &= inputs - 1) {
+            int column = Integer.numberOfTrailingZeros(inputs) * n;
+            for (int j = 0; j < n; j++) {
+                h[j] += w[column + j];
+            }
+        }
+        for (int j = 0; j < n; j++) {
+            h[j] = Math.max(h[j], 0);
+        }
+        float[] out = scratch.outputs;
+        for (int o = 0; o < OUTPUTS; o++) {
+            int row = w2 + o * n;
+            float sum = w[b2 + o];
+            for (int j = 0; j < n; j++) {
+                sum += w[row + j] * h[j];
+            }
+            out[o] = sum;
+        }
+        out[VALUE] = (float) Math.tanh(out[VALUE]);
+    }
+
+    /**
+     * Escolhe a célula livre de maior logit da política.
+     *
+     * @return Célula no referencial original, ou -1 se não há casa livre
+     */
+    int bestCell(int own, int opponent, Scratch scratch) {
+        int key = BoardSymmetry.canonicalKey(own, opponent);
+        int symmetry = BoardSymmetry.symmetryOf(key);
+        int canonicalOwn = BoardSymmetry.transformMask(symmetry, own);
+        int canonicalOpponent = BoardSymmetry.transformMask(symmetry, opponent);
+        forward(canonicalOwn, canonicalOpponent, scratch);
+        int bestCell = -1;
+        float best = Float.NEGATIVE_INFINITY;
+        for (int empty = ~(canonicalOwn | canonicalOpponent) & 0x1FF; empty != 0; empty &= empty - 1) {
+            int cell = Integer.numberOfTrailingZeros(empty);
+            if (scratch.outputs[cell] > best) {
+                best = scratch.outputs[cell];
+                bestCell = cell;
+            }
+        }
+        return bestCell < 0 ? -1 : BoardSymmetry.inverseTransformCell(symmetry, bestCell);
+    }
+
+    /**
+     * @return Valor estimado da posição para quem joga, de -1 a 1
+     */
+    float value(int own, int opponent, Scratch scratch) {
+        int symmetry = BoardSymmetry.symmetryOf(BoardSymmetry.canonicalKey(own, opponent));
+        forward(BoardSymmetry.transformMask(symmetry, own), BoardSymmetry.transformMask(symmetry, opponent), scratch);
+        return scratch.outputs[VALUE];
+    }
+
+    MlpNetwork copy() {
+        return new MlpNetwork(hidden, weights.clone());
+    }
+
+    /**
+     * Grava os pesos em um arquivo temporário e o move sobre o destino.
+     * Formato: magia, versão, entradas, neurônios ocultos e os pesos em float big-endian.
+     */
+    void save(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + weights.length * Float.BYTES)
+                .order(ByteOrder.BIG_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(INPUTS).putInt(hidden);
+        buffer.asFloatBuffer().put(weights);
+        buffer.rewind();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Lê uma rede gravada por {@link #save(Path)}.
+     */
+    static MlpNetwork load(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.BIG_ENDIAN);
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+                || buffer.getInt() != INPUTS) {
+            throw new IOException("Pesos da rede inválidos: " + file.getFileName());
+        }
+        int hidden = buffer.getInt();
+        if (hidden <= 0 || buffer.remaining() != parameterCount(hidden) * Float.BYTES) {
+            throw new IOException("Pesos da rede inválidos: " + file.getFileName());
+        }
+        float[] weights = new float[parameterCount(hidden)];
+        buffer.asFloatBuffer().get(weights);
+        return new MlpNetwork(hidden, weights);
+    }
+
+    /**
+     * Buffers reutilizados por uma thread a cada avaliação.
+     */
+    static final class Scratch {
+        final float[] hidden;
+        final float[] outputs = new float[OUTPUTS];
+
+        Scratch(MlpNetwork network) {
+            this.hidden = new float[network.hidden];
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.allan.velha.domain.service.impl;
+
+import com.allan.velha.domain.metrics.PredictionEvent;
+import com.allan.velha.domain.model.Board;
+import com.allan.velha.domain.model.Game;
+import com.allan.velha.domain.service.NeuralNetworkService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * IA de rede neural: joga a casa livre de maior probabilidade na saída de
+ * política da {@link MlpNetwork}. Disponível apenas para o tabuleiro 3x3.
+ * <p>
+ * Os pesos são lidos de {@code mlp.dat} no diretório {@code velha.memory.dir}
+ * e compartilhados por todas as instâncias do processo; cada instância tem
+ * seus próprios buffers, então a inferência não aloca. Se o arquivo não existe,
+ * a rede é treinada por autojogo ({@link MlpTrainer}) com {@code velha.mlp.games}
+ * partidas (padrão 200000) na primeira vez que a IA é criada.
+ */
+public class MlpServiceImpl implements NeuralNetworkService {
+    private static final String DEFAULT_MEMORY_DIR = "src/main/resources/data";
+    private static final String WEIGHTS_FILE = "mlp.dat";
+    private static final int HIDDEN = 32;
+
+    private final MlpNetwork network;
+    private final MlpNetwork.Scratch scratch;
+
+    public MlpServiceImpl() {
+        this.network = Holder.NETWORK;
+        this.scratch = new MlpNetwork.Scratch(network);
+    }
+
+    @Override
+    public int[] predictNextMove(Game game) {
+        int cell = bestCell(game);
+        if (cell < 0) {
+            return null;
+        }
+        return new int[] { cell / 3, cell % 3 };
+    }
+
+    /**
+     * Avalia as partidas em sequência com os mesmos buffers, sem alocar.
+     */
+    @Override
+    public void predictNextMoves(Game[] games, int count, int[] moves) {
+        for (int i = 0; i < count; i++) {
+            moves[i] = bestCell(games[i]);
+        }
+    }
+
+    private int bestCell(Game game) {
+        PredictionEvent event = new PredictionEvent();
+        event.begin();
+        int cell = choose(game);
+        PredictionEvent.commit(event, "mlp", cell, "POLICY");
+        return cell;
+    }
+
+    private int choose(Game game) {
+        Board board = game.getBoard();
+        if (!board.isClassic()) {
+            throw new IllegalArgumentException("A IA de rede neural só suporta o tabuleiro 3x3");
+        }
+        char symbol = game.getCurrentSymbol();
+        return network.bestCell(board.getMask(symbol), board.getMask(symbol == 'X' ? 'O' : 'X'), scratch);
+    }
+
+    private static MlpNetwork loadOrTrain() {
+        Path file = Path.of(System.getProperty("velha.memory.dir", DEFAULT_MEMORY_DIR)).resolve(WEIGHTS_FILE);
+        if (Files.exists(file)) {
+            try {
+                return MlpNetwork.load(file);
+            } catch (IOException e) {
+                System.err.println("Erro ao carregar os pesos da rede: " + e.getMessage());
+            }
+        }
+        MlpTrainer trainer = new MlpTrainer(HIDDEN, 1000, 42);
+        trainer.train(Long.getLong("velha.mlp.games", 200_000L), null);
+        try {
+            trainer.save(file);
+        } catch (IOException e) {
+            System.err.println("Erro ao salvar os pesos da rede: " + e.getMessage());
+        }
+        return trainer.getNetwork();
+    }
+
+    private static final class Holder {
+        private static final MlpNetwork NETWORK = loadOrTrain();
+    }
+}
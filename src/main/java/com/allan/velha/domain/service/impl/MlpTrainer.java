@@ -0,0 +1,252 @@
+package com.allan.velha.domain.service.impl;
+
+import com.allan.velha.domain.model.Board;
+import com.allan.velha.domain.model.BoardSymmetry;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+/**
+ * Treina a {@link MlpNetwork} por autojogo. A cada jogada, uma busca de um lance
+ * sobre a saída de valor da própria rede (vitória imediata vale 1, tabuleiro
+ * cheio vale 0, senão o valor do adversário com sinal trocado e descontado)
+ * produz os alvos: a melhor célula para a política e o melhor valor para a
+ * saída de valor. A partida segue pela melhor célula, ou por uma célula ao
+ * acaso com probabilidade {@code epsilon}.
+ * <p>
+ * As amostras vão para um buffer circular de tamanho fixo em arrays primitivos;
+ * ao fim de cada rodada de partidas, a rede é ajustada por gradiente descendente
+ * estocástico em amostras sorteadas do buffer, com taxa de aprendizado decrescente. Nenhuma etapa aloca por jogada.
+ */
+public final class MlpTrainer {
+    static final float GAMMA = 0.9f;
+    private static final double EPSILON = 0.2;
+    private static final float LEARNING_RATE = 0.02f;
+    /** Partidas até a taxa de aprendizado cair à metade. */
+    private static final float LEARNING_RATE_HALF_LIFE = 250_000f;
+    private static final int BUFFER_SIZE = 1 << 15;
+
+    private final MlpNetwork network;
+    private final MlpNetwork.Scratch scratch;
+    private final SplittableRandom random;
+    private final int gamesPerRound;
+
+    /** Amostras: posição canônica ({@code própria | adversária << 9}), célula e valor alvo. */
+    private final int[] samplePositions = new int[BUFFER_SIZE];
+    private final byte[] sampleCells = new byte[BUFFER_SIZE];
+    private final float[] sampleValues = new float[BUFFER_SIZE];
+    private int sampleCount;
+    private int nextSample;
+
+    /** Gradientes da saída e da camada oculta. */
+    private final float[] outputGradient = new float[MlpNetwork.OUTPUTS];
+    private final float[] hiddenGradient;
+    private long gamesPlayed;
+    private float learningRate = LEARNING_RATE;
+
+    /**
+     * @param hidden        Neurônios da camada oculta
+     * @param gamesPerRound Partidas de autojogo entre duas etapas de ajuste
+     * @param seed          Semente dos pesos iniciais e das explorações
+     */
+    public MlpTrainer(int hidden, int gamesPerRound, long seed) {
+        this.network = new MlpNetwork(hidden, seed);
+        this.scratch = new MlpNetwork.Scratch(network);
+        this.hiddenGradient = new float[hidden];
+        this.random = new SplittableRandom(seed);
+        this.gamesPerRound = gamesPerRound;
+    }
+
+    /**
+     * Joga as partidas de treino.
+     *
+     * @param games    Número de partidas
+     * @param progress Recebe o resultado de cada rodada; pode ser null
+     */
+    public void train(long games, Consumer<TrainingRound> progress) {
+        long start = System.nanoTime();
+        for (long done = 0; done < games;) {
+            long round = Math.min(gamesPerRound, games - done);
+            learningRate = LEARNING_RATE / (1 + gamesPlayed / LEARNING_RATE_HALF_LIFE);
+            int newSamples = 0;
+            for (long g = 0; g < round; g++) {
+                newSamples += selfPlay();
+            }
+            for (int i = 0; i < newSamples; i++) {
+                int sample = random.nextInt(sampleCount);
+                step(samplePositions[sample], sampleCells[sample], sampleValues[sample]);
+            }
+            done += round;
+            gamesPlayed += round;
+            if (progress != null) {
+                progress.accept(new TrainingRound(gamesPlayed, System.nanoTime() - start,
+                        optimalMoveRate()));
+            }
+        }
+    }
+
+    /**
+     * Fração das posições 3x3 alcançáveis em que a política da rede preserva o
+     * resultado da jogada perfeita.
+     */
+    public double optimalMoveRate() {
+        return SolvedPositionTable.getInstance().optimalMoveRate((own, opponent) ->
+                network.bestCell(own, opponent, scratch));
+    }
+
+    /**
+     * Mede o tempo médio de uma avaliação da rede, incluindo a forma canônica.
+     *
+     * @return Nanossegundos por posição
+     */
+    public double nanosPerPosition(int positions) {
+        int sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < positions; i++) {
+            int own = i & 0x1FF;
+            sink += network.bestCell(own, i * 7 & ~own & 0x1FF, scratch);
+        }
+        long elapsed = System.nanoTime() - start;
+        return sink == Integer.MIN_VALUE ? 0 : (double) elapsed / positions;
+    }
+
+    public long getGamesPlayed() {
+        return gamesPlayed;
+    }
+
+    /**
+     * Grava os pesos no formato lido pela IA {@code mlp}.
+     */
+    public void save(Path file) throws IOException {
+        network.save(file);
+    }
+
+    MlpNetwork getNetwork() {
+        return network;
+    }
+
+    /**
+     * Joga uma partida de autojogo, gravando uma amostra por jogada.
+     *
+     * @return Número de amostras gravadas
+     */
+    private int selfPlay() {
+        int own = 0;
+        int opponent = 0;
+        int samples = 0;
+        while (true) {
+            int key = BoardSymmetry.canonicalKey(own, opponent);
+            int symmetry = BoardSymmetry.symmetryOf(key);
+            int empty = ~(own | opponent) & 0x1FF;
+
+            int bestCell = -1;
+            float best = Float.NEGATIVE_INFINITY;
+            for (int free = empty; free != 0; free &= free - 1) {
+                int cell = Integer.numberOfTrailingZeros(free);
+                int after = own | 1 << cell;
+                float value;
+                if (Board.isWinningMask(after)) {
+                    value = 1;
+                } else if ((after | opponent) == 0x1FF) {
+                    value = 0;
+                } else {
+                    value = -GAMMA * network.value(opponent, after, scratch);
+                }
+                if (value > best) {
+                    best = value;
+                    bestCell = cell;
+                }
+            }
+            addSample(BoardSymmetry.transformMask(symmetry, own) | BoardSymmetry.transformMask(symmetry, opponent) << 9,
+                    BoardSymmetry.transformCell(symmetry, bestCell), best);
+            samples++;
+
+            int cell = bestCell;
+            if (random.nextDouble() < EPSILON) {
+                int pick = random.nextInt(Integer.bitCount(empty));
+                for (; pick > 0; pick--) {
+                    empty &= empty - 1;
+                }
+                cell = Integer.numberOfTrailingZeros(empty);
+            }
+            int after = own | 1 << cell;
+            if (Board.isWinningMask(after) || (after | opponent) == 0x1FF) {
+                return samples;
+            }
+            own = opponent;
+            opponent = after;
+        }
+    }
+
+    private void addSample(int position, int cell, float value) {
+        samplePositions[nextSample] = position;
+        sampleCells[nextSample] = (byte) cell;
+        sampleValues[nextSample] = value;
+        nextSample = (nextSample + 1) & (BUFFER_SIZE - 1);
+        sampleCount = Math.min(sampleCount + 1, BUFFER_SIZE);
+    }
+
+    /**
+     * Um passo de gradiente descendente: entropia cruzada da política (só sobre
+     * as casas livres) mais erro quadrático do valor.
+     */
+    private void step(int position, int targetCell, float targetValue) {
+        int own = position & 0x1FF;
+        int opponent = position >>> 9;
+        network.forward(own, opponent, scratch);
+        float[] out = scratch.outputs;
+        float[] h = scratch.hidden;
+        float[] w = network.weights;
+        int n = network.hidden;
+        int empty = ~(own | opponent) & 0x1FF;
+
+        // Softmax da política restrita às casas livres
+        float max = Float.NEGATIVE_INFINITY;
+        for (int free = empty; free != 0; free &= free - 1) {
+            max = Math.max(max, out[Integer.numberOfTrailingZeros(free)]);
+        }
+        float sum = 0;
+        for (int cell = 0; cell < BoardSymmetry.CELLS; cell++) {
+            float p = (empty & 1 << cell) != 0 ? (float) Math.exp(out[cell] - max) : 0;
+            outputGradient[cell] = p;
+            sum += p;
+        }
+        for (int cell = 0; cell < BoardSymmetry.CELLS; cell++) {
+            outputGradient[cell] = outputGradient[cell] / sum - (cell == targetCell ? 1 : 0);
+        }
+        float value = out[MlpNetwork.VALUE];
+        outputGradient[MlpNetwork.VALUE] = (value - targetValue) * (1 - value * value);
+
+        // Camada de saída
+        Arrays.fill(hiddenGradient, 0);
+        for (int o = 0; o < MlpNetwork.OUTPUTS; o++) {
+            float g = outputGradient[o];
+            if (g == 0) {
+                continue;
+            }
+            int row = network.w2 + o * n;
+            for (int j = 0; j < n; j++) {
+                hiddenGradient[j] += g * w[row + j];
+                w[row + j] -= learningRate * g * h[j];
+            }
+            w[network.b2 + o] -= learningRate * g;
+        }
+
+        // Camada oculta: ReLU e só as colunas das entradas ativas
+        for (int j = 0; j < n; j++) {
+            if (h[j] <= 0) {
+                hiddenGradient[j] = 0;
+            }
+            w[network.b1 + j] -= learningRate * hiddenGradient[j];
+        }
+        for (int inputs = position; inputs != 0; inputs &= inputs - 1) {
+            int column = Integer.numberOfTrailingZeros(inputs) * n;
+            for (int j = 0; j < n; j++) {
+                w[column + j] -= learningRate * hiddenGradient[j];
+            }
+        }
+    }
+}
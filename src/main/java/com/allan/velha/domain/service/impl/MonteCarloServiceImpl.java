@@ -0,0 +1,493 @@
+package com.allan.velha.domain.service.impl;
+
+import com.allan.velha.domain.metrics.PredictionEvent;
+import com.allan.velha.domain.model.Board;
+import com.allan.velha.domain.model.Game;
+import com.allan.velha.domain.service.NeuralNetworkService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * IA de Monte Carlo Tree Search com paralelismo na árvore.
+ * Várias threads de um {@link ForkJoinPool} percorrem a mesma árvore usando
+ * UCT; cada nó visitado recebe uma perda virtual enquanto a simulação está em
+ * andamento, afastando as outras threads do mesmo caminho. As simulações usam
+ * uma cópia primitiva do tabuleiro por thread e não alocam.
+ * <p>
+ * Com {@link #startPondering(Game)} as threads continuam construindo a árvore
+ * durante a vez do adversário. Na jogada seguinte, o ramo da resposta que ele
+ * escolheu vira a nova raiz, e o prazo é reduzido na proporção das simulações
+ * que esse ramo já recebeu.
+ * <p>
+ * Configuração (propriedades de sistema): {@code velha.mcts.timeMs} (prazo por
+ * jogada, padrão 1000), {@code velha.mcts.playouts} (limite de simulações por
+ * jogada, padrão 1000000) e {@code velha.mcts.threads} (padrão: núcleos disponíveis).
+ */
+public class MonteCarloServiceImpl implements NeuralNetworkService {
+    private static final double EXPLORATION = Math.sqrt(2);
+    /** Tabuleiros até este número de casas expandem todas as jogadas. */
+    private static final int FULL_WIDTH_CELLS = 16;
+    private static final int[][] DIRECTIONS = { { 0, 1 }, { 1, 0 }, { 1, 1 }, { 1, -1 } };
+
+    private final long timeBudgetNanos;
+    private final long playoutLimit;
+    private final int threads;
+    private final ForkJoinPool pool;
+    private final SplittableRandom random;
+    private MonteCarloStatistics lastStatistics;
+    private Ponder ponder;
+    /** Sinal de parada da busca de {@link #predictNextMove(Game)} em andamento. */
+    private volatile AtomicBoolean activeStop;
+
+    public MonteCarloServiceImpl() {
+        this(Long.getLong("velha.mcts.timeMs", 1000L), Long.getLong("velha.mcts.playouts", 1_000_000L),
+                Integer.getInteger("velha.mcts.threads", Runtime.getRuntime().availableProcessors()),
+                new SplittableRandom().nextLong());
+    }
+
+    /**
+     * @param timeBudgetMillis Prazo de busca por jogada
+     * @param playoutLimit     Número máximo de simulações por jogada
+     * @param threads          Threads de busca
+     * @param seed             Semente das simulações
+     */
+    public MonteCarloServiceImpl(long timeBudgetMillis, long playoutLimit, int threads, long seed) {
+        this.timeBudgetNanos = timeBudgetMillis * 1_000_000L;
+        this.playoutLimit = playoutLimit;
+        this.threads = threads;
+        this.pool = new ForkJoinPool(threads);
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public int[] predictNextMove(Game game) {
+        PredictionEvent event = new PredictionEvent();
+        event.begin();
+        Ponder pondered = finishPondering();
+        Board board = game.getBoard();
+        if (game.isGameOver() || board.isFull()) {
+            return null;
+        }
+        int size = board.getSize();
+        byte[] cells = encode(board);
+        byte side = (byte) (game.getCurrentSymbol() == 'X' ? 1 : 2);
+
+        // O nó raiz representa a jogada do adversário que levou à posição atual
+        Node root = pondered != null ? pondered.reusableBranch(cells) : null;
+        boolean reused = root != null;
+        long budget = timeBudgetNanos;
+        long limit = playoutLimit;
+        if (root != null) {
+            // Desconta o tempo que o ramo reaproveitado custou durante o pondering
+            long visits = root.visits.get();
+            budget = Math.max(0, budget - (long) (visits * pondered.nanosPerPlayout()));
+            limit = Math.max(0, limit - visits);
+        } else {
+            root = new Node(-1, (byte) (3 - side));
+        }
+
+        AtomicLong playouts = new AtomicLong();
+        AtomicBoolean stop = new AtomicBoolean();
+        activeStop = stop;
+        long start = System.nanoTime();
+        long[] perWorker = new long[threads];
+        try {
+            List<Worker> workers = startWorkers(root, cells, side, board.getWinLength(), size, start + budget,
+                    playouts, limit, stop);
+            for (int i = 0; i < threads; i++) {
+                workers.get(i).task.join();
+                perWorker[i] = workers.get(i).playouts;
+            }
+        } finally {
+            activeStop = null;
+        }
+        lastStatistics = new MonteCarloStatistics(perWorker, System.nanoTime() - start, root.visits.get());
+
+        Node best = root.bestChild();
+        PredictionEvent.commit(event, "mcts", best.cell, reused ? "TREE_REUSE" : "SEARCH");
+        return new int[] { best.cell / size, best.cell % size };
+    }
+
+    @Override
+    public synchronized void startPondering(Game game) {
+        finishPondering();
+        Board board = game.getBoard();
+        if (game.isGameOver() || board.isFull()) {
+            return;
+        }
+        byte[] cells = encode(board);
+        byte side = (byte) (game.getCurrentSymbol() == 'X' ? 1 : 2);
+        Node root = new Node(-1, (byte) (3 - side));
+        AtomicLong playouts = new AtomicLong();
+        AtomicBoolean stop = new AtomicBoolean();
+        long start = System.nanoTime();
+        List<Worker> workers = startWorkers(root, cells, side, board.getWinLength(), board.getSize(),
+                Long.MAX_VALUE, playouts, playoutLimit, stop);
+        ponder = new Ponder(root, cells, side, workers, playouts, stop, start);
+    }
+
+    @Override
+    public void stopPondering() {
+        finishPondering();
+    }
+
+    @Override
+    public void cancelSearch() {
+        AtomicBoolean stop = activeStop;
+        if (stop != null) {
+            stop.set(true);
+        }
+    }
+
+    @Override
+    public void close() {
+        finishPondering();
+        pool.shutdown();
+    }
+
+    /**
+     * Interrompe o pondering, se houver, e aguarda as threads terminarem.
+     *
+     * @return Árvore construída durante a vez do adversário, ou null
+     */
+    private synchronized Ponder finishPondering() {
+        Ponder current = ponder;
+        if (current == null) {
+            return null;
+        }
+        ponder = null;
+        current.stop.set(true);
+        for (Worker worker : current.workers) {
+            worker.task.join();
+        }
+        current.elapsedNanos = System.nanoTime() - current.startNanos;
+        return current;
+    }
+
+    private List<Worker> startWorkers(Node root, byte[] cells, byte side, int winLength, int size, long deadline,
+            AtomicLong playouts, long limit, AtomicBoolean stop) {
+        List<Worker> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Worker worker = new Worker(root, cells, side, size, winLength, random.split());
+            worker.task = pool.submit(() -> worker.run(deadline, playouts, limit, stop));
+            workers.add(worker);
+        }
+        return workers;
+    }
+
+    private static byte[] encode(Board board) {
+        int size = board.getSize();
+        byte[] cells = new byte[size * size];
+        for (int cell = 0; cell < cells.length; cell++) {
+            char value = board.getCell(cell / size, cell % size);
+            cells[cell] = (byte) (value == 'X' ? 1 : value == 'O' ? 2 : 0);
+        }
+        return cells;
+    }
+
+    /**
+     * @return Estatísticas da última busca, ou null se nenhuma foi feita
+     */
+    public MonteCarloStatistics getLastStatistics() {
+        return lastStatistics;
+    }
+
+    /**
+     * Árvore construída durante a vez do adversário.
+     */
+    private static final class Ponder {
+        private final Node root;
+        private final byte[] cells;
+        private final byte side;
+        private final List<Worker> workers;
+        private final AtomicLong playouts;
+        private final AtomicBoolean stop;
+        private final long startNanos;
+        private long elapsedNanos;
+
+        Ponder(Node root, byte[] cells, byte side, List<Worker> workers, AtomicLong playouts, AtomicBoolean stop,
+                long startNanos) {
+            this.root = root;
+            this.cells = cells;
+            this.side = side;
+            this.workers = workers;
+            this.playouts = playouts;
+            this.stop = stop;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Procura o ramo da jogada que o adversário fez a partir da posição do pondering.
+         *
+         * @return Nó da jogada, ou null se a posição atual não vem da posição do pondering
+         */
+        Node reusableBranch(byte[] current) {
+            if (current.length != cells.length || root.children == null) {
+                return null;
+            }
+            int played = -1;
+            for (int cell = 0; cell < cells.length; cell++) {
+                if (current[cell] != cells[cell]) {
+                    if (played >= 0 || cells[cell] != 0 || current[cell] != side) {
+                        return null;
+                    }
+                    played = cell;
+                }
+            }
+            for (Node child : root.children) {
+                if (child.cell == played) {
+                    return child.terminalWinner < 0 ? child : null;
+                }
+            }
+            return null;
+        }
+
+        double nanosPerPlayout() {
+            long count = Math.min(playouts.get(), root.visits.get());
+            return count == 0 ? 0 : (double) elapsedNanos / count;
+        }
+    }
+
+    /**
+     * Nó da árvore compartilhada. Os resultados são contados em meios pontos
+     * (vitória 2, empate 1) do ponto de vista de quem fez a jogada do nó.
+     */
+    private static final class Node {
+        private final int cell;
+        private final byte mover;
+        private final AtomicInteger visits = new AtomicInteger();
+        private final AtomicInteger virtualLosses = new AtomicInteger();
+        private final AtomicLong halfPoints = new AtomicLong();
+        private volatile Node[] children;
+        /** Vencedor se a jogada encerra o jogo: 0 empate, 1 X, 2 O; -1 se não encerra. */
+        private volatile int terminalWinner = -2;
+
+        Node(int cell, byte mover) {
+            this.cell = cell;
+            this.mover = mover;
+        }
+
+        Node select() {
+            Node[] options = children;
+            double logParent = Math.log(Math.max(1, visits.get() + virtualLosses.get()));
+            Node best = options[0];
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (Node child : options) {
+                int n = child.visits.get() + child.virtualLosses.get();
+                if (n == 0) {
+                    return child;
+                }
+                double value = child.halfPoints.get() / (2.0 * n) + EXPLORATION * Math.sqrt(logParent / n);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        Node bestChild() {
+            Node best = children[0];
+            for (Node child : children) {
+                if (child.terminalWinner == child.mover) {
+                    return child;
+                }
+                if (child.visits.get() > best.visits.get()) {
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        void update(int winner) {
+            halfPoints.addAndGet(winner == mover ? 2 : winner == 0 ? 1 : 0);
+            visits.incrementAndGet();
+        }
+    }
+
+    /**
+     * Thread de busca com sua própria cópia do tabuleiro e buffers reutilizados.
+     */
+    private static final class Worker {
+        private final Node root;
+        private final byte[] rootCells;
+        private final byte rootSide;
+        private final int size;
+        private final int winLength;
+        private final SplittableRandom random;
+        private final int rootFilled;
+        private final byte[] cells;
+        private final int[] empties;
+        private final Node[] path;
+        private ForkJoinTask<?> task;
+        private long playouts;
+
+        Worker(Node root, byte[] rootCells, byte rootSide, int size, int winLength, SplittableRandom random) {
+            this.root = root;
+            this.rootCells = rootCells;
+            this.rootSide = rootSide;
+            this.size = size;
+            this.winLength = winLength;
+            this.random = random;
+            this.cells = rootCells.clone();
+            int filled = 0;
+            for (byte value : rootCells) {
+                if (value != 0) {
+                    filled++;
+                }
+            }
+            this.rootFilled = filled;
+            this.empties = new int[rootCells.length];
+            this.path = new Node[rootCells.length + 1];
+        }
+
+        void run(long deadline, AtomicLong totalPlayouts, long playoutLimit, AtomicBoolean stop) {
+            ensureExpanded(root, rootSide);
+            while (!stop.get() && System.nanoTime() < deadline && totalPlayouts.getAndIncrement() < playoutLimit) {
+                iterate();
+                playouts++;
+            }
+        }
+
+        private void iterate() {
+            int depth = 0;
+            int moves = 0;
+            byte side = rootSide;
+            Node node = root;
+            path[depth++] = node;
+            int winner;
+
+            // Seleção: desce pela árvore aplicando perdas virtuais
+            while (true) {
+                if (node.terminalWinner >= 0) {
+                    winner = node.terminalWinner;
+                    break;
+                }
+                if (node.children == null) {
+                    if (node.visits.get() > 0) {
+                        ensureExpanded(node, side);
+                        continue;
+                    }
+                    winner = playout(side);
+                    break;
+                }
+                node = node.select();
+                node.virtualLosses.incrementAndGet();
+                path[depth++] = node;
+                cells[node.cell] = side;
+                moves++;
+                if (node.terminalWinner == -2) {
+                    node.terminalWinner = completesLine(node.cell) ? side : rootFilled + moves == cells.length ? 0 : -1;
+                }
+                side = (byte) (3 - side);
+            }
+
+            // Retropropagação
+            for (int i = 0; i < depth; i++) {
+                Node visited = path[i];
+                visited.update(winner);
+                if (i > 0) {
+                    visited.virtualLosses.decrementAndGet();
+                }
+            }
+            System.arraycopy(rootCells, 0, cells, 0, cells.length);
+        }
+
+        /**
+         * Joga aleatoriamente até o fim a partir da posição atual.
+         *
+         * @return Vencedor (1 X, 2 O) ou 0 para empate
+         */
+        private int playout(byte side) {
+            int count = 0;
+            for (int cell = 0; cell < cells.length; cell++) {
+                if (cells[cell] == 0) {
+                    empties[count++] = cell;
+                }
+            }
+            while (count > 0) {
+                int pick = random.nextInt(count);
+                int cell = empties[pick];
+                empties[pick] = empties[--count];
+                cells[cell] = side;
+                if (completesLine(cell)) {
+                    return side;
+                }
+                side = (byte) (3 - side);
+            }
+            return 0;
+        }
+
+        private void ensureExpanded(Node node, byte side) {
+            if (node.children != null) {
+                return;
+            }
+            synchronized (node) {
+                if (node.children != null) {
+                    return;
+                }
+                boolean fullWidth = cells.length <= FULL_WIDTH_CELLS;
+                boolean empty = true;
+                for (byte value : cells) {
+                    if (value != 0) {
+                        empty = false;
+                        break;
+                    }
+                }
+                List<Node> created = new ArrayList<>();
+                for (int cell = 0; cell < cells.length; cell++) {
+                    if (cells[cell] == 0 && (fullWidth || (empty ? cell == cells.length / 2 : hasNeighbor(cell)))) {
+                        created.add(new Node(cell, side));
+                    }
+                }
+                node.children = created.toArray(new Node[0]);
+            }
+        }
+
+        private boolean hasNeighbor(int cell) {
+            int row = cell / size;
+            int col = cell % size;
+            for (int r = Math.max(0, row - 1); r <= Math.min(size - 1, row + 1); r++) {
+                for (int c = Math.max(0, col - 1); c <= Math.min(size - 1, col + 1); c++) {
+                    if (cells[r * size + c] != 0) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private boolean completesLine(int cell) {
+            byte value = cells[cell];
+            int row = cell / size;
+            int col = cell % size;
+            for (int[] direction : DIRECTIONS) {
+                int count = 1 + count(value, row, col, direction[0], direction[1])
+                        + count(value, row, col, -direction[0], -direction[1]);
+                if (count >= winLength) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int count(byte value, int row, int col, int dRow, int dCol) {
+            int count = 0;
+            int r = row + dRow;
+            int c = col + dCol;
+            while (count < winLength - 1 && r >= 0 && r < size && c >= 0 && c < size && cells[r * size + c] == value) {
+                count++;
+                r += dRow;
+                c += dCol;
+            }
+            return count;
+        }
+    }
+}
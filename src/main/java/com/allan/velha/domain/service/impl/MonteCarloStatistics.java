@@ -0,0 +1,40 @@
+package com.allan.velha.domain.service.impl;
+
+/**
+ * Estatísticas de uma busca da {@link MonteCarloServiceImpl}.
+ *
+ * @param playoutsPerWorker Simulações feitas por cada thread
+ * @param elapsedNanos      Duração da busca
+ * @param rootVisits        Visitas à raiz da árvore
+ */
+public record MonteCarloStatistics(long[] playoutsPerWorker, long elapsedNanos, long rootVisits) {
+
+    public long playouts() {
+        long total = 0;
+        for (long playouts : playoutsPerWorker) {
+            total += playouts;
+        }
+        return total;
+    }
+
+    public double playoutsPerSecond() {
+        return elapsedNanos == 0 ? 0 : playouts() * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @return Simulações por segundo da thread
+     */
+    public double playoutsPerSecond(int worker) {
+        return elapsedNanos == 0 ? 0 : playoutsPerWorker[worker] * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(String.format("%d simulações, %.0f/s em %d threads (",
+                playouts(), playoutsPerSecond(), playoutsPerWorker.length));
+        for (int i = 0; i < playoutsPerWorker.length; i++) {
+            text.append(i == 0 ? "" : ", ").append(String.format("%.0f/s", playoutsPerSecond(i)));
+        }
+        return text.append(')').toString();
+    }
+}
@@ -0,0 +1,63 @@
+package com.allan.velha.domain.service.impl;
+
+import com.allan.velha.domain.model.GameMemory;
+import com.allan.velha.domain.service.NeuralNetworkService;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Cria a implementação de IA pelo nome, como usado na propriedade de sistema
+ * {@code velha.engine}.
+ */
+public final class NeuralNetworkServiceFactory {
+    public static final String DEFAULT_ENGINE = "heuristic";
+
+    private NeuralNetworkServiceFactory() {
+    }
+
+    /**
+     * @param name Nome da IA: {@code heuristic}, {@code perfect}, {@code alphabeta}, {@code mcts},
+     *             {@code qlearning} ou {@code mlp}
+     * @return Nova instância da IA
+     */
+    public static NeuralNetworkService create(String name) {
+        return switch (name) {
+            case "heuristic" -> new NeuralNetworkServiceImpl();
+            case "perfect" -> new PerfectPlayServiceImpl();
+            case "alphabeta" -> new AlphaBetaServiceImpl();
+            case "mcts" -> new MonteCarloServiceImpl();
+            case "qlearning" -> new QLearningServiceImpl();
+            case "mlp" -> new MlpServiceImpl();
+            default -> throw new IllegalArgumentException("IA desconhecida: " + name);
+        };
+    }
+
+    /**
+     * Cria uma IA com aleatoriedade reproduzível, para simulações.
+     * Além das IAs de {@link #create(String)}, aceita {@code random} e
+     * {@code scripted:<casa>,<casa>,...}.
+     *
+     * @param name       Nome da IA
+     * @param seed       Semente das escolhas aleatórias da IA
+     * @param gameMemory Memória compartilhada pela IA heurística
+     * @return Nova instância da IA
+     */
+    public static NeuralNetworkService create(String name, long seed, GameMemory gameMemory) {
+        if (name.startsWith("scripted:")) {
+            String[] cells = name.substring("scripted:".length()).split(",");
+            int[] preferred = new int[cells.length];
+            for (int i = 0; i < cells.length; i++) {
+                preferred[i] = Integer.parseInt(cells[i].trim());
+            }
+            return new ScriptedServiceImpl(preferred);
+        }
+        return switch (name) {
+            case "heuristic" -> new NeuralNetworkServiceImpl(gameMemory, new Random(seed));
+            case "random" -> new RandomServiceImpl(new SplittableRandom(seed));
+            case "mcts" -> new MonteCarloServiceImpl(Long.getLong("velha.mcts.timeMs", 1000L),
+                    Long.getLong("velha.mcts.playouts", 1_000_000L), Integer.getInteger("velha.mcts.threads", 1), seed);
+            default -> create(name);
+        };
+    }
+}
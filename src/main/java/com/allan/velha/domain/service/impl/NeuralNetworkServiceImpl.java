@@ -1,33 +1,123 @@
 package com.allan.velha.domain.service.impl;
 
+import com.allan.velha.domain.metrics.EngineMetrics;
+import com.allan.velha.domain.metrics.EngineMetrics.Stage;
+import com.allan.velha.domain.metrics.PredictionEvent;
+import com.allan.velha.domain.model.Board;
 import com.allan.velha.domain.model.Game;
 import com.allan.velha.domain.model.GameMemory;
 import com.allan.velha.domain.service.NeuralNetworkService;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
+/**
+ * IA heurística: vence ou bloqueia quando possível, evita jogadas arriscadas ou
+ * registradas como perdedoras na {@link GameMemory} e prefere os pontos quentes
+ * do tabuleiro. Joga com qualquer símbolo; a memória guarda as posições sempre
+ * do ponto de vista de quem joga com O.
+ * <p>
+ * As jogadas de cada partida ficam guardadas até o resultado ser registrado,
+ * então uma instância pode jogar várias partidas intercaladas, como nos lotes
+ * de {@link #predictNextMoves(Game[], int, int[])}.
+ * <p>
+ * Com {@code velha.metrics} ligada, cada etapa registra sua latência e qual
+ * delas decidiu a jogada em {@link EngineMetrics}.
+ */
 public class NeuralNetworkServiceImpl implements NeuralNetworkService {
-    private final Random random = new Random();
-    private final GameMemory gameMemory = new GameMemory();
-    private final List<BoardState> moveHistory = new ArrayList<>();
+    /** Limite de partidas acompanhadas; as mais antigas, abandonadas, são descartadas. */
+    private static final int MAX_TRACKED_GAMES = 1024;
+    private static final EngineMetrics METRICS = EngineMetrics.get();
+
+    private final Random random;
+    private final GameMemory gameMemory;
+    private final boolean ownsMemory;
+    /** Etapa que decidiu a última jogada. */
+    private Stage decidedBy;
+    private final Map<Game, GameHistory> histories = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Game, GameHistory> eldest) {
+            return size() > MAX_TRACKED_GAMES;
+        }
+    };
+
+    public NeuralNetworkServiceImpl() {
+        this(GameMemory.shared(), new Random(), true);
+    }
+
+    /**
+     * @param gameMemory Memória de jogadas, que pode ser compartilhada, ou null
+     *                   para jogar sem memória e sem aprender
+     * @param random     Gerador usado nas escolhas entre jogadas equivalentes
+     */
+    public NeuralNetworkServiceImpl(GameMemory gameMemory, Random random) {
+        this(gameMemory, random, false);
+    }
+
+    private NeuralNetworkServiceImpl(GameMemory gameMemory, Random random, boolean ownsMemory) {
+        this.gameMemory = gameMemory;
+        this.random = random;
+        this.ownsMemory = ownsMemory;
+    }
 
     @Override
     public int[] predictNextMove(Game game) {
-        char[][] board = game.getBoard().getState();
+        PredictionEvent event = new PredictionEvent();
+        event.begin();
+        decidedBy = null;
+        int[] move = chooseMove(game);
+        if (event.shouldCommit()) {
+            int cell = move == null ? -1 : move[0] * game.getBoard().getSize() + move[1];
+            PredictionEvent.commit(event, "heuristic", cell, decidedBy == null ? "NONE" : decidedBy.name());
+        }
+        return move;
+    }
+
+    private int[] chooseMove(Game game) {
+        long start = EngineMetrics.ENABLED ? System.nanoTime() : 0;
+        GameHistory history = histories.get(game);
+        if (history == null) {
+            // Jogadas de partidas encerradas e não registradas (empates) são descartadas
+            histories.keySet().removeIf(Game::isGameOver);
+            history = new GameHistory(game.getCurrentSymbol(), new ArrayList<>());
+            histories.put(game, history);
+        }
+        Board board = game.getBoard();
+        char aiSymbol = game.getCurrentSymbol();
+        char opponentSymbol = aiSymbol == 'X' ? 'O' : 'X';
+        // A memória de jogadas só existe para o tabuleiro clássico
+        boolean useMemory = gameMemory != null && board.isClassic();
+        char[][] memoryView = useMemory && aiSymbol == 'X' ? memoryView(board) : null;
+        long stageStart = start;
 
         // 1. Verificar se pode vencer no próximo movimento
-        int[] winningMove = findWinningMove(board, 'O');
+        int[] winningMove = findWinningMove(board, aiSymbol, -1);
+        if (EngineMetrics.ENABLED) {
+            stageStart = METRICS.stageDone(Stage.WIN_CHECK, stageStart);
+        }
         if (winningMove != null) {
-            recordMove(board, winningMove);
+            recordMove(history, board, winningMove);
+            decidedBy = Stage.WIN_CHECK;
+            if (EngineMetrics.ENABLED) {
+                METRICS.decided(Stage.WIN_CHECK, start);
+            }
             return winningMove;
         }
 
         // 2. Verificar se precisa bloquear uma vitória do jogador
-        int[] blockingMove = findWinningMove(board, 'X');
+        int[] blockingMove = findWinningMove(board, opponentSymbol, -1);
+        if (EngineMetrics.ENABLED) {
+            stageStart = METRICS.stageDone(Stage.BLOCK_CHECK, stageStart);
+        }
         if (blockingMove != null) {
-            recordMove(board, blockingMove);
+            recordMove(history, board, blockingMove);
+            decidedBy = Stage.BLOCK_CHECK;
+            if (EngineMetrics.ENABLED) {
+                METRICS.decided(Stage.BLOCK_CHECK, start);
+            }
             return blockingMove;
         }
 
@@ -37,28 +127,10 @@ public class NeuralNetworkServiceImpl implements NeuralNetworkService {
 
         // Analisar cada jogada disponível
         for (int[] move : availableMoves) {
-            if (!gameMemory.isLosingMove(board, move[0], move[1])) {
-                // Simular a jogada
-                board[move[0]][move[1]] = 'O';
-
-                // Verificar se o jogador terá uma jogada vencedora após esta
-                boolean isRisky = false;
-
-                // Simular todas as possíveis respostas do jogador
-                for (int i = 0; i < 3; i++) {
-                    for (int j = 0; j < 3; j++) {
-                        if (board[i][j] == ' ') {
-                            board[i][j] = 'X';
-                            if (checkWin(board, 'X')) {
-                                isRisky = true;
-                            }
-                            board[i][j] = ' ';
-                        }
-                    }
-                }
-
-                // Desfazer a simulação
-                board[move[0]][move[1]] = ' ';
+            if (!useMemory || !isLosingMove(board, memoryView, move)) {
+                // Simular a jogada e verificar se o jogador terá uma jogada vencedora após esta
+                int moveCell = move[0] * board.getSize() + move[1];
+                boolean isRisky = findWinningMove(board, opponentSymbol, moveCell) != null;
 
                 if (!isRisky) {
                     safeMoves.add(move);
@@ -70,6 +142,9 @@ public class NeuralNetworkServiceImpl implements NeuralNetworkService {
         if (safeMoves.isEmpty()) {
             safeMoves = availableMoves;
         }
+        if (EngineMetrics.ENABLED) {
+            stageStart = METRICS.stageDone(Stage.MEMORY_FILTER, stageStart);
+        }
 
         // 4. Verificar pontos quentes do tabuleiro
         List<int[]> hotMoves = new ArrayList<>();
@@ -82,115 +157,111 @@ public class NeuralNetworkServiceImpl implements NeuralNetworkService {
         // Se houver pontos quentes seguros, escolher um deles
         if (!hotMoves.isEmpty()) {
             int[] move = hotMoves.get(random.nextInt(hotMoves.size()));
-            recordMove(board, move);
+            recordMove(history, board, move);
+            decidedBy = Stage.HOT_SPOT;
+            if (EngineMetrics.ENABLED) {
+                METRICS.stageDone(Stage.HOT_SPOT, stageStart);
+                METRICS.decided(Stage.HOT_SPOT, start);
+            }
             return move;
         }
+        if (EngineMetrics.ENABLED) {
+            stageStart = METRICS.stageDone(Stage.HOT_SPOT, stageStart);
+        }
 
         // 5. Se nenhuma estratégia anterior funcionar, escolher aleatoriamente
         if (!safeMoves.isEmpty()) {
             int[] move = safeMoves.get(random.nextInt(safeMoves.size()));
-            recordMove(board, move);
+            recordMove(history, board, move);
+            decidedBy = Stage.RANDOM;
+            if (EngineMetrics.ENABLED) {
+                METRICS.stageDone(Stage.RANDOM, stageStart);
+                METRICS.decided(Stage.RANDOM, start);
+            }
             return move;
         }
 
         return null;
     }
 
-    private void recordMove(char[][] board, int[] move) {
-        char[][] boardCopy = new char[3][3];
-        for (int i = 0; i < 3; i++) {
-            System.arraycopy(board[i], 0, boardCopy[i], 0, 3);
+    private static void recordMove(GameHistory history, Board board, int[] move) {
+        if (board.isClassic()) {
+            char[][] state = history.aiSymbol == 'X' ? memoryView(board) : board.getState();
+            history.moves.add(new BoardState(state, move[0], move[1]));
         }
-        moveHistory.add(new BoardState(boardCopy, move[0], move[1]));
     }
 
-    private boolean isHotSpot(char[][] board, int[] move) {
-        // Centro é o ponto mais quente
-        if (move[0] == 1 && move[1] == 1) {
-            return true;
+    private boolean isLosingMove(Board board, char[][] memoryView, int[] move) {
+        if (memoryView != null) {
+            return gameMemory.isLosingMove(memoryView, move[0], move[1]);
         }
+        return gameMemory.isLosingMove(board, move[0], move[1]);
+    }
 
-        // Cantos são o segundo ponto mais quente
-        if ((move[0] == 0 || move[0] == 2) && (move[1] == 0 || move[1] == 2)) {
-            // Verificar se há símbolos adjacentes
-            int row = move[0];
-            int col = move[1];
+    /**
+     * Cópia do tabuleiro com os símbolos trocados, para consultar a memória
+     * quando a IA joga com X.
+     */
+    private static char[][] memoryView(Board board) {
+        char[][] state = board.getState();
+        for (char[] row : state) {
+            for (int j = 0; j < row.length; j++) {
+                row[j] = row[j] == 'X' ? 'O' : row[j] == 'O' ? 'X' : ' ';
+            }
+        }
+        return state;
+    }
 
-            // Verificar horizontalmente
-            if (col == 0 && board[row][1] != ' ')
-                return true;
-            if (col == 2 && board[row][1] != ' ')
-                return true;
+    private boolean isHotSpot(Board board, int[] move) {
+        int size = board.getSize();
+        int row = move[0];
+        int col = move[1];
 
-            // Verificar verticalmente
-            if (row == 0 && board[1][col] != ' ')
-                return true;
-            if (row == 2 && board[1][col] != ' ')
-                return true;
+        // Centro é o ponto mais quente
+        if (row == size / 2 && col == size / 2) {
+            return true;
+        }
 
-            // Verificar diagonalmente
-            if ((row == 0 && col == 0) && (board[1][1] != ' ' || board[1][0] != ' ' || board[0][1] != ' '))
-                return true;
-            if ((row == 0 && col == 2) && (board[1][1] != ' ' || board[1][2] != ' ' || board[0][1] != ' '))
-                return true;
-            if ((row == 2 && col == 0) && (board[1][1] != ' ' || board[1][0] != ' ' || board[2][1] != ' '))
-                return true;
-            return (row == 2 && col == 2) && (board[1][1] != ' ' || board[1][2] != ' ' || board[2][1] != ' ');
+        // No 3x3, só os cantos são o segundo ponto mais quente; nos demais, qualquer casa
+        if (size == Board.DEFAULT_SIZE && (row == 1 || col == 1)) {
+            return false;
         }
 
+        // Verificar se há símbolos adjacentes (horizontal, vertical e diagonal)
+        for (int i = Math.max(0, row - 1); i <= Math.min(size - 1, row + 1); i++) {
+            for (int j = Math.max(0, col - 1); j <= Math.min(size - 1, col + 1); j++) {
+                if (board.getCell(i, j) != ' ') {
+                    return true;
+                }
+            }
+        }
         return false;
     }
 
-    private int[] findWinningMove(char[][] board, char symbol) {
+    /**
+     * Procura uma casa vazia onde o símbolo venceria.
+     *
+     * @param excludedCell Casa a ignorar (ocupada em uma simulação), ou -1
+     */
+    private int[] findWinningMove(Board board, char symbol, int excludedCell) {
+        int size = board.getSize();
         // Testar cada posição vazia
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (board[i][j] == ' ') {
-                    // Simular a jogada
-                    board[i][j] = symbol;
-
-                    // Verificar se é uma jogada vencedora
-                    if (checkWin(board, symbol)) {
-                        // Desfazer a simulação
-                        board[i][j] = ' ';
-                        return new int[] { i, j };
-                    }
-
-                    // Desfazer a simulação
-                    board[i][j] = ' ';
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (i * size + j != excludedCell && board.isValidMove(i, j) && board.isWinningMove(i, j, symbol)) {
+                    return new int[] { i, j };
                 }
             }
         }
         return null;
     }
 
-    private boolean checkWin(char[][] board, char symbol) {
-        // Verificar linhas
-        for (int i = 0; i < 3; i++) {
-            if (board[i][0] == symbol && board[i][1] == symbol && board[i][2] == symbol) {
-                return true;
-            }
-        }
-
-        // Verificar colunas
-        for (int j = 0; j < 3; j++) {
-            if (board[0][j] == symbol && board[1][j] == symbol && board[2][j] == symbol) {
-                return true;
-            }
-        }
-
-        // Verificar diagonais
-        if (board[0][0] == symbol && board[1][1] == symbol && board[2][2] == symbol) {
-            return true;
-        }
-        return board[0][2] == symbol && board[1][1] == symbol && board[2][0] == symbol;
-    }
-
-    private List<int[]> getAvailableMoves(char[][] board) {
+    private List<int[]> getAvailableMoves(Board board) {
+        int size = board.getSize();
         List<int[]> moves = new ArrayList<>();
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (board[i][j] == ' ') {
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (board.isValidMove(i, j)) {
                     moves.add(new int[] { i, j });
                 }
             }
@@ -198,16 +269,34 @@ public class NeuralNetworkServiceImpl implements NeuralNetworkService {
         return moves;
     }
 
+    @Override
     public void registerGameResult(Game game) {
-        if (game.getWinner() != null && game.getWinner().name().equals("X")) {
-            // Se o jogador humano (X) ganhou, registrar todas as jogadas como perdedoras
-            for (BoardState state : moveHistory) {
-                gameMemory.addLosingMove(state.board, state.row, state.col);
+        GameHistory history = histories.remove(game);
+        if (history != null && gameMemory != null && game.getWinner() != null && game.getWinner().name().charAt(0) != history.aiSymbol) {
+            // Se o adversário ganhou, registrar todas as jogadas como perdedoras (gravadas em lote)
+            for (BoardState state : history.moves) {
+                gameMemory.enqueueLosingMove(state.board, state.row, state.col);
             }
         }
-        moveHistory.clear();
+    }
+
+    /**
+     * Libera a memória compartilhada obtida por esta IA, gravando o aprendizado pendente.
+     * Memórias recebidas no construtor são fechadas por quem as criou.
+     */
+    @Override
+    public void close() {
+        if (ownsMemory) {
+            gameMemory.close();
+        }
     }
 
     private record BoardState(char[][] board, int row, int col) {
     }
+
+    /**
+     * Jogadas da IA em uma partida e o símbolo com que ela joga.
+     */
+    private record GameHistory(char aiSymbol, List<BoardState> moves) {
+    }
 }
\ No newline at end of file
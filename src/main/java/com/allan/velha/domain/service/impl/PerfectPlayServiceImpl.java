@@ -0,0 +1,53 @@
+package com.allan.velha.domain.service.impl;
+
+import com.allan.velha.domain.metrics.PredictionEvent;
+import com.allan.velha.domain.model.Board;
+import com.allan.velha.domain.model.Game;
+import com.allan.velha.domain.service.NeuralNetworkService;
+
+/**
+ * IA de jogo perfeito: responde cada jogada com uma consulta à
+ * {@link SolvedPositionTable}, resolvida uma única vez por execução.
+ * Disponível apenas para o tabuleiro clássico 3x3.
+ */
+public class PerfectPlayServiceImpl implements NeuralNetworkService {
+    private final SolvedPositionTable table = SolvedPositionTable.getInstance();
+
+    public PerfectPlayServiceImpl() {
+    }
+
+    @Override
+    public int[] predictNextMove(Game game) {
+        int cell = bestMove(game);
+        if (cell < 0) {
+            return null;
+        }
+        return new int[] { cell / 3, cell % 3 };
+    }
+
+    /**
+     * Consulta a tabela para cada partida, sem alocar.
+     */
+    @Override
+    public void predictNextMoves(Game[] games, int count, int[] moves) {
+        for (int i = 0; i < count; i++) {
+            moves[i] = bestMove(games[i]);
+        }
+    }
+
+    private int bestMove(Game game) {
+        PredictionEvent event = new PredictionEvent();
+        event.begin();
+        int cell = choose(game);
+        PredictionEvent.commit(event, "perfect", cell, "TABLE");
+        return cell;
+    }
+
+    private int choose(Game game) {
+        Board board = game.getBoard();
+        if (!board.isClassic()) {
+            throw new IllegalArgumentException("A IA perfeita só suporta o tabuleiro 3x3");
+        }
+        return table.bestMove(board.getMask('X'), board.getMask('O'), game.getCurrentSymbol() == 'X');
+    }
+}
@@ -0,0 +1,89 @@
+package com.allan.velha.domain.service.impl;
+
+import com.allan.velha.domain.model.Game;
+import com.allan.velha.domain.model.GameMemory;
+import com.allan.velha.domain.service.NeuralNetworkService;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Um número fixo de instâncias da IA compartilhadas por muitas partidas
+ * simultâneas, como as sessões do servidor, para que IAs pesadas
+ * ({@code alphabeta} com suas tabelas de transposição, {@code mcts} com suas
+ * threads) não sejam criadas por partida.
+ * <p>
+ * Cada partida usa sempre a mesma instância, escolhida pela identidade do
+ * {@link Game}, porque a IA heurística acompanha as jogadas de cada partida até
+ * {@link #registerGameResult(Game)}. Uma instância atende uma chamada por vez;
+ * as demais esperam sua vez. Pensar durante a vez do adversário não é
+ * suportado, porque prenderia a instância.
+ */
+public class PooledServiceImpl implements NeuralNetworkService {
+    private final NeuralNetworkService[] engines;
+    // ReentrantLock em vez de synchronized: com threads virtuais, a espera não
+    // prende a thread da plataforma
+    private final ReentrantLock[] locks;
+
+    /**
+     * @param engine     Nome da IA, como em {@link NeuralNetworkServiceFactory#create(String, long, GameMemory)}
+     * @param size       Número de instâncias
+     * @param seed       Semente das sementes de cada instância
+     * @param gameMemory Memória compartilhada pela IA heurística
+     */
+    public PooledServiceImpl(String engine, int size, long seed, GameMemory gameMemory) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Número de instâncias da IA inválido: " + size);
+        }
+        SplittableRandom seeds = new SplittableRandom(seed);
+        this.engines = new NeuralNetworkService[size];
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            engines[i] = NeuralNetworkServiceFactory.create(engine, seeds.nextLong(), gameMemory);
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * @return Número de instâncias da IA
+     */
+    public int getSize() {
+        return engines.length;
+    }
+
+    @Override
+    public int[] predictNextMove(Game game) {
+        int index = indexOf(game);
+        locks[index].lock();
+        try {
+            return engines[index].predictNextMove(game);
+        } finally {
+            locks[index].unlock();
+        }
+    }
+
+    @Override
+    public void registerGameResult(Game game) {
+        int index = indexOf(game);
+        locks[index].lock();
+        try {
+            engines[index].registerGameResult(game);
+        } finally {
+            locks[index].unlock();
+        }
+    }
+
+    /**
+     * Fecha todas as instâncias. Não deve haver chamadas em andamento.
+     */
+    @Override
+    public void close() {
+        for (NeuralNetworkService engine : engines) {
+            engine.close();
+        }
+    }
+
+    private int indexOf(Game game) {
+        return Math.floorMod(System.identityHashCode(game), engines.length);
+    }
+}
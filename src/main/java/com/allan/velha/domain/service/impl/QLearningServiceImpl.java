@@ -0,0 +1,158 @@
+package com.allan.velha.domain.service.impl;
+
+import com.allan.velha.domain.metrics.PredictionEvent;
+import com.allan.velha.domain.model.Board;
+import com.allan.velha.domain.model.Game;
+import com.allan.velha.domain.service.NeuralNetworkService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * IA de aprendizado por reforço tabular: joga a célula de maior valor na
+ * {@link ActionValueTable} e continua aprendendo com cada partida encerrada,
+ * sejam vitórias, empates ou derrotas. Disponível apenas para o tabuleiro 3x3.
+ * <p>
+ * A tabela é compartilhada por todas as instâncias do processo e gravada em
+ * {@code qlearning.dat} no diretório {@code velha.memory.dir} quando a última
+ * instância é fechada. Se o arquivo não existe, a tabela é treinada por
+ * autojogo ({@link QLearningTrainer}) com {@code velha.qlearning.games}
+ * partidas (padrão 500000) na primeira vez que a IA é criada.
+ */
+public class QLearningServiceImpl implements NeuralNetworkService {
+    private static final String DEFAULT_MEMORY_DIR = "src/main/resources/data";
+    private static final String TABLE_FILE = "qlearning.dat";
+
+    private static ActionValueTable shared;
+    private static int sharedReferences;
+    private static boolean sharedLearned;
+
+    private final ActionValueTable table;
+    private boolean closed;
+
+    public QLearningServiceImpl() {
+        this.table = acquire();
+    }
+
+    @Override
+    public int[] predictNextMove(Game game) {
+        int cell = bestCell(game);
+        if (cell < 0) {
+            return null;
+        }
+        return new int[] { cell / 3, cell % 3 };
+    }
+
+    /**
+     * Consulta a tabela para cada partida, sem alocar.
+     */
+    @Override
+    public void predictNextMoves(Game[] games, int count, int[] moves) {
+        for (int i = 0; i < count; i++) {
+            moves[i] = bestCell(games[i]);
+        }
+    }
+
+    private int bestCell(Game game) {
+        PredictionEvent event = new PredictionEvent();
+        event.begin();
+        int cell = choose(game);
+        PredictionEvent.commit(event, "qlearning", cell, "TABLE");
+        return cell;
+    }
+
+    private int choose(Game game) {
+        Board board = game.getBoard();
+        if (!board.isClassic()) {
+            throw new IllegalArgumentException("A IA de aprendizado por reforço só suporta o tabuleiro 3x3");
+        }
+        char symbol = game.getCurrentSymbol();
+        return table.bestCell(board.getMask(symbol), board.getMask(symbol == 'X' ? 'O' : 'X'));
+    }
+
+    /**
+     * Aprende com todas as jogadas da partida, da última para a primeira, para
+     * que o resultado chegue às jogadas iniciais em uma única passada.
+     */
+    @Override
+    public void registerGameResult(Game game) {
+        if (!game.getBoard().isClassic() || !game.isGameOver()) {
+            return;
+        }
+        int moves = game.getPly();
+        int[] xMasks = new int[moves + 1];
+        int[] oMasks = new int[moves + 1];
+        for (int i = 0; i < moves; i++) {
+            int[] move = game.getMove(i);
+            int bit = 1 << (move[0] * 3 + move[1]);
+            boolean x = game.getMoveSymbol(i) == 'X';
+            xMasks[i + 1] = xMasks[i] | (x ? bit : 0);
+            oMasks[i + 1] = oMasks[i] | (x ? 0 : bit);
+        }
+        for (int i = moves - 1; i >= 0; i--) {
+            int[] move = game.getMove(i);
+            boolean x = game.getMoveSymbol(i) == 'X';
+            table.learnMove(x ? xMasks[i] : oMasks[i], x ? oMasks[i] : xMasks[i], move[0] * 3 + move[1],
+                    QLearningTrainer.ALPHA, QLearningTrainer.GAMMA);
+        }
+        synchronized (QLearningServiceImpl.class) {
+            sharedLearned = true;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            release();
+        }
+    }
+
+    private static synchronized ActionValueTable acquire() {
+        if (shared == null) {
+            shared = loadOrTrain(tableFile());
+            sharedLearned = false;
+        }
+        sharedReferences++;
+        return shared;
+    }
+
+    private static synchronized void release() {
+        if (--sharedReferences > 0) {
+            return;
+        }
+        if (sharedLearned) {
+            try {
+                shared.save(tableFile());
+            } catch (IOException e) {
+                System.err.println("Erro ao salvar a tabela de valores: " + e.getMessage());
+            }
+        }
+        shared = null;
+    }
+
+    private static ActionValueTable loadOrTrain(Path file) {
+        if (Files.exists(file)) {
+            try {
+                return ActionValueTable.load(file);
+            } catch (IOException e) {
+                System.err.println("Erro ao carregar a tabela de valores: " + e.getMessage());
+            }
+        }
+        QLearningTrainer trainer = new QLearningTrainer(Runtime.getRuntime().availableProcessors(), 50_000, 42);
+        try {
+            trainer.train(Long.getLong("velha.qlearning.games", 500_000L), null);
+            trainer.save(file);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("Erro ao salvar a tabela de valores: " + e.getMessage());
+        }
+        return trainer.getTable();
+    }
+
+    private static Path tableFile() {
+        return Path.of(System.getProperty("velha.memory.dir", DEFAULT_MEMORY_DIR)).resolve(TABLE_FILE);
+    }
+}
@@ -0,0 +1,155 @@
+package com.allan.velha.domain.service.impl;
+
+import com.allan.velha.domain.model.Board;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Treina a tabela de valores da {@link QLearningServiceImpl} por autojogo em
+ * paralelo. O treino é dividido em rodadas: em cada rodada, cada thread copia a
+ * tabela global, joga sua parte das partidas contra si mesma aprendendo a cada
+ * jogada (Q-learning com exploração epsilon-gulosa) e, ao fim da rodada, a
+ * tabela global passa a ser a média das tabelas das threads.
+ * <p>
+ * A memória usada é uma tabela por thread mais a global, independente do
+ * número de partidas.
+ */
+public final class QLearningTrainer {
+    /** Taxa de aprendizado. */
+    static final float ALPHA = 0.3f;
+    /** Desconto por jogada, que faz a IA preferir vitórias rápidas e derrotas demoradas. */
+    static final float GAMMA = 0.9f;
+    private static final double EPSILON = 0.2;
+
+    private final ActionValueTable table;
+    private final int threads;
+    private final long gamesPerRound;
+    private final SplittableRandom seeds;
+    private long gamesPlayed;
+
+    /**
+     * @param threads       Threads de autojogo
+     * @param gamesPerRound Partidas (somando as threads) entre duas médias das tabelas
+     * @param seed          Semente das explorações
+     */
+    public QLearningTrainer(int threads, long gamesPerRound, long seed) {
+        this(new ActionValueTable(), threads, gamesPerRound, seed);
+    }
+
+    QLearningTrainer(ActionValueTable table, int threads, long gamesPerRound, long seed) {
+        this.table = table;
+        this.threads = threads;
+        this.gamesPerRound = gamesPerRound;
+        this.seeds = new SplittableRandom(seed);
+    }
+
+    /**
+     * Joga as partidas de treino.
+     *
+     * @param games    Número de partidas
+     * @param progress Recebe o resultado de cada rodada; pode ser null
+     */
+    public void train(long games, Consumer<TrainingRound> progress) throws InterruptedException {
+        ActionValueTable[] workers = new ActionValueTable[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = table.copy();
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "qlearning-trainer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.nanoTime();
+        try {
+            for (long done = 0; done < games;) {
+                long round = Math.min(gamesPerRound, games - done);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    ActionValueTable worker = workers[i];
+                    worker.copyFrom(table);
+                    long share = round / threads + (i < round % threads ? 1 : 0);
+                    SplittableRandom random = seeds.split();
+                    futures.add(pool.submit(() -> selfPlay(worker, share, random)));
+                }
+                for (Future<?> future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        throw new IllegalStateException("Falha no treino", e.getCause());
+                    }
+                }
+                table.average(workers);
+                done += round;
+                gamesPlayed += round;
+                if (progress != null) {
+                    progress.accept(new TrainingRound(gamesPlayed, System.nanoTime() - start, optimalMoveRate()));
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Fração das posições 3x3 alcançáveis em que a jogada escolhida pela tabela
+     * preserva o resultado (vitória, empate ou derrota) da jogada perfeita da
+     * {@link SolvedPositionTable}.
+     */
+    public double optimalMoveRate() {
+        return SolvedPositionTable.getInstance().optimalMoveRate(table::bestCell);
+    }
+
+    public long getGamesPlayed() {
+        return gamesPlayed;
+    }
+
+    /**
+     * Grava a tabela treinada no formato lido pela {@link QLearningServiceImpl}.
+     */
+    public void save(Path file) throws IOException {
+        table.save(file);
+    }
+
+    ActionValueTable getTable() {
+        return table;
+    }
+
+    /**
+     * Joga partidas de autojogo aprendendo em {@code worker}.
+     */
+    private static void selfPlay(ActionValueTable worker, long games, SplittableRandom random) {
+        for (long g = 0; g < games; g++) {
+            int own = 0;
+            int opponent = 0;
+            while (true) {
+                int empty = ~(own | opponent) & 0x1FF;
+                int cell;
+                if (random.nextDouble() < EPSILON) {
+                    int pick = random.nextInt(Integer.bitCount(empty));
+                    for (; pick > 0; pick--) {
+                        empty &= empty - 1;
+                    }
+                    cell = Integer.numberOfTrailingZeros(empty);
+                } else {
+                    cell = worker.bestCell(own, opponent);
+                }
+                int after = worker.learnMove(own, opponent, cell, ALPHA, GAMMA);
+                if (Board.isWinningMask(after) || (after | opponent) == 0x1FF) {
+                    break;
+                }
+                // A vez passa ao adversário
+                own = opponent;
+                opponent = after;
+            }
+        }
+    }
+}
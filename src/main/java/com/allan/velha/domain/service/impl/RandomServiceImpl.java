@@ -0,0 +1,52 @@
+package com.allan.velha.domain.service.impl;
+
+import com.allan.velha.domain.model.Board;
+import com.allan.velha.domain.model.Game;
+import com.allan.velha.domain.service.NeuralNetworkService;
+
+import java.util.SplittableRandom;
+
+/**
+ * Adversário que escolhe uma casa livre ao acaso, usado em simulações.
+ */
+public class RandomServiceImpl implements NeuralNetworkService {
+    private final SplittableRandom random;
+
+    public RandomServiceImpl(SplittableRandom random) {
+        this.random = random;
+    }
+
+    @Override
+    public int[] predictNextMove(Game game) {
+        int cell = randomCell(game.getBoard());
+        int size = game.getBoard().getSize();
+        return cell < 0 ? null : new int[] { cell / size, cell % size };
+    }
+
+    @Override
+    public void predictNextMoves(Game[] games, int count, int[] moves) {
+        for (int i = 0; i < count; i++) {
+            moves[i] = randomCell(games[i].getBoard());
+        }
+    }
+
+    /**
+     * Sorteia a n-ésima casa livre.
+     *
+     * @return Casa sorteada, ou -1 se o tabuleiro está cheio
+     */
+    private int randomCell(Board board) {
+        int size = board.getSize();
+        int free = size * size - board.getMoveCount();
+        if (free == 0) {
+            return -1;
+        }
+        int pick = random.nextInt(free);
+        for (int cell = 0; cell < size * size; cell++) {
+            if (board.isValidMove(cell / size, cell % size) && pick-- == 0) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+}
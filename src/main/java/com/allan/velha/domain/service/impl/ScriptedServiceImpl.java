@@ -0,0 +1,38 @@
+package com.allan.velha.domain.service.impl;
+
+import com.allan.velha.domain.model.Board;
+import com.allan.velha.domain.model.Game;
+import com.allan.velha.domain.service.NeuralNetworkService;
+
+/**
+ * Adversário roteirizado, usado em simulações: joga na primeira casa livre de
+ * uma lista de preferência e, se todas estiverem ocupadas, na primeira casa livre
+ * do tabuleiro.
+ */
+public class ScriptedServiceImpl implements NeuralNetworkService {
+    private final int[] preferredCells;
+
+    /**
+     * @param preferredCells Casas ({@code row * size + col}) em ordem de preferência
+     */
+    public ScriptedServiceImpl(int[] preferredCells) {
+        this.preferredCells = preferredCells.clone();
+    }
+
+    @Override
+    public int[] predictNextMove(Game game) {
+        Board board = game.getBoard();
+        int size = board.getSize();
+        for (int cell : preferredCells) {
+            if (board.isValidMove(cell / size, cell % size)) {
+                return new int[] { cell / size, cell % size };
+            }
+        }
+        for (int cell = 0; cell < size * size; cell++) {
+            if (board.isValidMove(cell / size, cell % size)) {
+                return new int[] { cell / size, cell % size };
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,27 @@
+package com.allan.velha.domain.service.impl;
+
+/**
+ * Estatísticas de uma busca da {@link AlphaBetaServiceImpl}.
+ *
+ * @param nodes        Nós visitados
+ * @param elapsedNanos Duração da busca
+ * @param ttProbes     Consultas à tabela de transposição
+ * @param ttHits       Consultas que encontraram a posição
+ * @param depth        Última profundidade concluída
+ */
+public record SearchStatistics(long nodes, long elapsedNanos, long ttProbes, long ttHits, int depth) {
+
+    public double nodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+    }
+
+    public double ttHitRate() {
+        return ttProbes == 0 ? 0 : (double) ttHits / ttProbes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("profundidade %d, %d nós, %.0f nós/s, TT %.1f%%",
+                depth, nodes, nodesPerSecond(), ttHitRate() * 100);
+    }
+}
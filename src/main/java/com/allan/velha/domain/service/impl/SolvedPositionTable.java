@@ -0,0 +1,169 @@
+package com.allan.velha.domain.service.impl;
+
+import com.allan.velha.domain.model.Board;
+import com.allan.velha.domain.model.BoardSymmetry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Tabela com a solução de todas as posições 3x3 alcançáveis, com X ou O começando.
+ * Cada entrada é indexada por {@code posiçãoCanônica * 2 + lado}, onde lado 0
+ * significa X a jogar e 1, O a jogar, e guarda o valor da posição para quem
+ * joga e a melhor célula no referencial canônico.
+ * <p>
+ * O valor é positivo para vitória, negativo para derrota e zero para empate;
+ * o módulo cresce com as casas livres, preferindo vitórias rápidas e derrotas
+ * demoradas.
+ */
+final class SolvedPositionTable {
+    private static final byte UNSOLVED = -2;
+    private static final byte TERMINAL = -1;
+    /** Ordem de busca: centro, cantos e bordas. */
+    private static final int[] MOVE_ORDER = { 4, 0, 2, 6, 8, 1, 3, 5, 7 };
+
+    private final byte[] values = new byte[BoardSymmetry.POSITIONS * 2];
+    private final byte[] bestCells = new byte[BoardSymmetry.POSITIONS * 2];
+    private int solvedPositions;
+
+    private SolvedPositionTable() {
+        Arrays.fill(bestCells, UNSOLVED);
+        solve(0, 0, true);
+        solve(0, 0, false);
+    }
+
+    /**
+     * @return Tabela compartilhada, construída no primeiro acesso
+     */
+    static SolvedPositionTable getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Retorna a melhor jogada para o lado a jogar.
+     *
+     * @return Célula ({@code row * 3 + col}) no referencial original, ou -1 se a
+     *         posição é terminal ou não foi resolvida
+     */
+    int bestMove(int xMask, int oMask, boolean xToMove) {
+        int key = BoardSymmetry.canonicalKey(xMask, oMask);
+        int cell = bestCells[BoardSymmetry.positionOf(key) * 2 + (xToMove ? 0 : 1)];
+        return cell < 0 ? -1 : BoardSymmetry.inverseTransformCell(BoardSymmetry.symmetryOf(key), cell);
+    }
+
+    /**
+     * @return Valor da posição para o lado a jogar
+     */
+    int value(int xMask, int oMask, boolean xToMove) {
+        int key = BoardSymmetry.canonicalKey(xMask, oMask);
+        return values[BoardSymmetry.positionOf(key) * 2 + (xToMove ? 0 : 1)];
+    }
+
+    /**
+     * @return Número de posições canônicas resolvidas
+     */
+    int size() {
+        return solvedPositions;
+    }
+
+    /**
+     * Fração das posições alcançáveis e não terminais em que a jogada escolhida
+     * preserva o resultado (vitória, empate ou derrota) da jogada perfeita.
+     *
+     * @param chooser Recebe as máscaras de quem joga e do adversário e devolve a célula escolhida
+     */
+    double optimalMoveRate(IntBinaryOperator chooser) {
+        int[] positions = ReachablePositions.POSITIONS;
+        int optimal = 0;
+        for (int packed : positions) {
+            int own = packed & 0x1FF;
+            int opponent = packed >>> 9;
+            int after = own | 1 << chooser.applyAsInt(own, opponent);
+            int value = Board.isWinningMask(after) ? Integer.bitCount(~(after | opponent) & 0x1FF) + 1
+                    : -value(after, opponent, false);
+            if (Integer.signum(value) == Integer.signum(value(own, opponent, true))) {
+                optimal++;
+            }
+        }
+        return (double) optimal / positions.length;
+    }
+
+    private int solve(int xMask, int oMask, boolean xToMove) {
+        int key = BoardSymmetry.canonicalKey(xMask, oMask);
+        int symmetry = BoardSymmetry.symmetryOf(key);
+        int index = BoardSymmetry.positionOf(key) * 2 + (xToMove ? 0 : 1);
+        if (bestCells[index] != UNSOLVED) {
+            return values[index];
+        }
+
+        // Resolve no referencial canônico para que a célula guardada seja válida nele
+        int x = BoardSymmetry.transformMask(symmetry, xMask);
+        int o = BoardSymmetry.transformMask(symmetry, oMask);
+        int own = xToMove ? x : o;
+        int opponent = xToMove ? o : x;
+        int empty = ~(x | o) & 0x1FF;
+        int free = Integer.bitCount(empty);
+
+        int best;
+        int bestCell = TERMINAL;
+        if (Board.isWinningMask(opponent)) {
+            best = -(free + 1);
+        } else if (empty == 0) {
+            best = 0;
+        } else {
+            best = Integer.MIN_VALUE;
+            for (int cell : MOVE_ORDER) {
+                int bit = 1 << cell;
+                if ((empty & bit) == 0) {
+                    continue;
+                }
+                int score = xToMove ? -solve(x | bit, o, false) : -solve(x, o | bit, true);
+                if (score > best) {
+                    best = score;
+                    bestCell = cell;
+                }
+            }
+        }
+
+        values[index] = (byte) best;
+        bestCells[index] = (byte) bestCell;
+        solvedPositions++;
+        return best;
+    }
+
+    private static final class Holder {
+        private static final SolvedPositionTable INSTANCE = new SolvedPositionTable();
+    }
+
+    /**
+     * Posições canônicas alcançáveis e não terminais, vistas pelo lado a jogar,
+     * empacotadas como {@code própria | adversária << 9}.
+     */
+    private static final class ReachablePositions {
+        private static final int[] POSITIONS = collect();
+
+        private static int[] collect() {
+            boolean[] seen = new boolean[BoardSymmetry.POSITIONS];
+            List<Integer> positions = new ArrayList<>();
+            visit(0, 0, seen, positions);
+            return positions.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        private static void visit(int own, int opponent, boolean[] seen, List<Integer> positions) {
+            if (Board.isWinningMask(opponent) || (own | opponent) == 0x1FF) {
+                return;
+            }
+            int position = BoardSymmetry.positionOf(BoardSymmetry.canonicalKey(own, opponent));
+            if (seen[position]) {
+                return;
+            }
+            seen[position] = true;
+            positions.add(own | opponent << 9);
+            for (int empty = ~(own | opponent) & 0x1FF; empty != 0; empty &= empty - 1) {
+                visit(opponent, own | Integer.lowestOneBit(empty), seen, positions);
+            }
+        }
+    }
+}
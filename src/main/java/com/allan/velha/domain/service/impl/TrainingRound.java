@@ -0,0 +1,17 @@
+package com.allan.velha.domain.service.impl;
+
+/**
+ * Resultado parcial do treino.
+ *
+ * @param games        Partidas jogadas até a rodada
+ * @param elapsedNanos Tempo desde o início do treino
+ * @param optimalRate  Fração de jogadas perfeitas, de 0 a 1
+ */
+public record TrainingRound(long games, long elapsedNanos, double optimalRate) {
+    @Override
+    public String toString() {
+        double seconds = elapsedNanos / 1e9;
+        return String.format("%d partidas | %.1f s | %.0f partidas/s | %.2f%% jogadas perfeitas", games,
+                seconds, games / seconds, optimalRate * 100);
+    }
+}
@@ -1,10 +1,12 @@
 package com.allan.velha.presentation.controller;
 
+import com.allan.velha.domain.model.Board;
 import com.allan.velha.domain.model.Game;
 import com.allan.velha.domain.model.Player;
+import com.allan.velha.domain.service.GameSessionService;
 import com.allan.velha.domain.service.NeuralNetworkService;
-import com.allan.velha.domain.service.impl.NeuralNetworkServiceImpl;
 import com.allan.velha.presentation.model.Score;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -12,17 +14,31 @@ import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.GridPane;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Controlador principal do jogo da velha.
- * Gerencia a interface do usuário e a lógica do jogo.
+ * Gerencia a interface do usuário; as regras da sessão ficam no
+ * {@link GameSessionService}.
+ * <p>
+ * A jogada da IA e o registro do aprendizado rodam em uma thread própria, fora
+ * da thread da interface; os resultados voltam por {@link Platform#runLater}.
+ * Enquanto a IA pensa o tabuleiro fica bloqueado, e reiniciar o jogo descarta
+ * a jogada em andamento.
+ * <p>
+ * Com {@code -Dvelha.ponder=true} a IA continua pensando durante a vez do
+ * jogador humano, nas IAs que suportam pondering.
  */
 public class VelhaController {
     @FXML
     private GridPane gridPane;
     @FXML
-    private Button btn00, btn01, btn02, btn10, btn11, btn12, btn20, btn21, btn22;
-    @FXML
     private Label lblPlayer;
     @FXML
     private Label lblOverlay;
@@ -40,11 +56,22 @@ public class VelhaController {
     private Label lblDraws;
 
     private final NeuralNetworkService neuralNetworkService;
+    private final GameSessionService session;
+    private final int boardSize;
     private Game game;
     private Button[][] buttons;
     private final ObservableList<Score> scores = FXCollections.observableArrayList();
     private boolean isGameStarted = false;
     private boolean isHumanFirst = true; // Controla quem começa o próximo jogo
+    // Thread única: jogadas e aprendizado da IA são executados na ordem em que foram pedidos
+    private final ExecutorService aiExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "velha-ai");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Future<?> pendingAIMove;
+    private boolean isAIThinking = false;
+    private final boolean ponder = Boolean.getBoolean("velha.ponder");
 
     /**
      * Construtor do controlador.
@@ -52,7 +79,20 @@ public class VelhaController {
      * @param neuralNetworkService Serviço de IA para o jogo
      */
     public VelhaController(NeuralNetworkService neuralNetworkService) {
+        this(neuralNetworkService, Board.DEFAULT_SIZE, Board.DEFAULT_SIZE);
+    }
+
+    /**
+     * Construtor do controlador para tabuleiros de tamanho configurável.
+     * 
+     * @param neuralNetworkService Serviço de IA para o jogo
+     * @param boardSize            Número de linhas e colunas do tabuleiro
+     * @param winLength            Símbolos alinhados necessários para vencer
+     */
+    public VelhaController(NeuralNetworkService neuralNetworkService, int boardSize, int winLength) {
         this.neuralNetworkService = neuralNetworkService;
+        this.session = new GameSessionService(neuralNetworkService, boardSize, winLength);
+        this.boardSize = boardSize;
     }
 
     /**
@@ -66,17 +106,33 @@ public class VelhaController {
     }
 
     private void setupButtons() {
-        buttons = new Button[][] {
-                { btn00, btn01, btn02 },
-                { btn10, btn11, btn12 },
-                { btn20, btn21, btn22 }
-        };
-
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                buttons[i][j].setOnAction(this::handleButtonClick);
+        // O grid tem 450px; no 3x3 mantém as células de 150px com espaçamento de 10px
+        double gap = boardSize == Board.DEFAULT_SIZE ? 10.0 : 2.0;
+        double cellSize = boardSize == Board.DEFAULT_SIZE ? 150.0 : (450.0 - gap * (boardSize - 1)) / boardSize;
+        Font font = Font.font("System", FontWeight.BOLD, 60.0 * Board.DEFAULT_SIZE / boardSize);
+        gridPane.setHgap(gap);
+        gridPane.setVgap(gap);
+
+        buttons = new Button[boardSize][boardSize];
+        for (int i = 0; i < boardSize; i++) {
+            for (int j = 0; j < boardSize; j++) {
+                Button button = new Button();
+                button.setMnemonicParsing(false);
+                button.setDisable(true);
+                button.setMinSize(cellSize, cellSize);
+                button.setPrefSize(cellSize, cellSize);
+                button.setStyle("-fx-background-color: beige;");
+                button.setFont(font);
+                button.setOnAction(this::handleButtonClick);
+                buttons[i][j] = button;
+                gridPane.add(button, j, i);
             }
         }
+
+        // O overlay cobre todo o tabuleiro, acima dos botões
+        GridPane.setColumnSpan(lblOverlay, boardSize);
+        GridPane.setRowSpan(lblOverlay, boardSize);
+        lblOverlay.toFront();
     }
 
     private void setupTable() {
@@ -96,26 +152,22 @@ public class VelhaController {
         if (!isGameStarted) {
             isGameStarted = true;
 
-            // Humano sempre X, IA sempre O
-            Player humanPlayer = new Player("X");
-            Player aiPlayer = new Player("O");
-
             clearBoard();
             enableButtons(true);
 
-            // Sempre criamos o jogo com X primeiro e O segundo para manter os símbolos
-            game = new Game(humanPlayer, aiPlayer);
-
-            // Se a IA começa, definimos ela como jogador atual e fazemos sua jogada
-            if (!isHumanFirst) {
-                game.setCurrentPlayer(aiPlayer);
-                makeAIMove();
-            }
+            // Humano sempre X, IA sempre O
+            game = session.startGame(isHumanFirst);
 
             updateStatusLabel();
             btnStart.setDisable(true);
             btnRestart.setDisable(false);
             lblOverlay.setVisible(false);
+
+            if (!isHumanFirst) {
+                makeAIMove();
+            } else {
+                startPondering();
+            }
         }
     }
 
@@ -124,6 +176,8 @@ public class VelhaController {
      */
     @FXML
     public void resetGame() {
+        cancelAIMove();
+        neuralNetworkService.stopPondering();
         scores.clear();
         scores.add(new Score("X", 0));
         scores.add(new Score("O", 0));
@@ -143,24 +197,20 @@ public class VelhaController {
      */
     @FXML
     public void handleButtonClick(ActionEvent event) {
-        if (!isGameStarted)
-            return;
-
-        // Só aceita cliques quando for a vez do jogador X (humano)
-        if (!game.getCurrentPlayer().name().equals("X"))
+        if (!isGameStarted || isAIThinking)
             return;
 
         Button clickedButton = (Button) event.getSource();
         int[] position = findButtonPosition(clickedButton);
 
-        if (position != null && isValidMove(position)) {
+        if (position != null) {
             makePlayerMove(position);
         }
     }
 
     private int[] findButtonPosition(Button button) {
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
+        for (int i = 0; i < boardSize; i++) {
+            for (int j = 0; j < boardSize; j++) {
                 if (buttons[i][j] == button) {
                     return new int[] { i, j };
                 }
@@ -169,16 +219,11 @@ public class VelhaController {
         return null;
     }
 
-    private boolean isValidMove(int[] position) {
-        return game.getBoard().getState()[position[0]][position[1]] == ' ';
-    }
-
     private void makePlayerMove(int[] position) {
-        // Garante que o jogador humano só joga como X
-        if (!game.getCurrentPlayer().name().equals("X"))
+        // Só aceita a jogada na vez do jogador X (humano) e em casa livre
+        if (!session.playHumanMove(position[0], position[1]))
             return;
 
-        game.makeMove(position[0], position[1]);
         updateBoard();
         updateStatusLabel();
 
@@ -192,22 +237,84 @@ public class VelhaController {
 
     private void makeAIMove() {
         // Garante que a IA só joga como O
-        if (!game.getCurrentPlayer().name().equals("O"))
+        if (!session.isAITurn())
             return;
 
-        int[] aiMove = neuralNetworkService.predictNextMove(game);
-        if (aiMove != null) {
-            game.makeMove(aiMove[0], aiMove[1]);
+        Game currentGame = game;
+        setAIThinking(true);
+        pendingAIMove = aiExecutor.submit(() -> {
+            int[] aiMove = session.computeAIMove(currentGame);
+            Platform.runLater(() -> applyAIMove(currentGame, aiMove));
+        });
+    }
+
+    /**
+     * Aplica na thread da interface a jogada calculada pela IA, se o jogo
+     * para o qual ela foi pedida ainda está em andamento.
+     */
+    private void applyAIMove(Game requestedGame, int[] aiMove) {
+        if (requestedGame != game || !isAIThinking) {
+            return;
+        }
+        pendingAIMove = null;
+        setAIThinking(false);
+        if (session.applyAIMove(requestedGame, aiMove)) {
             updateBoard();
             updateStatusLabel();
 
             // Verifica se o jogo acabou após a jogada da IA
             if (game.isGameOver()) {
                 checkGameEnd();
+            } else {
+                startPondering();
             }
         }
     }
 
+    /**
+     * Deixa a IA pensando na vez do jogador humano, se o pondering está ativo.
+     */
+    private void startPondering() {
+        if (ponder) {
+            neuralNetworkService.startPondering(game);
+        }
+    }
+
+    private void setAIThinking(boolean thinking) {
+        isAIThinking = thinking;
+        enableButtons(!thinking);
+        if (thinking) {
+            lblPlayer.setText("IA pensando...");
+        } else {
+            updateStatusLabel();
+        }
+    }
+
+    private void cancelAIMove() {
+        if (pendingAIMove != null) {
+            pendingAIMove.cancel(true);
+            // As buscas por prazo ignoram a interrupção: a IA precisa ser avisada
+            neuralNetworkService.cancelSearch();
+            pendingAIMove = null;
+        }
+        isAIThinking = false;
+    }
+
+    /**
+     * Descarta a jogada em andamento e aguarda o aprendizado pendente ser
+     * gravado. Chamado quando a aplicação é encerrada.
+     */
+    public void shutdown() {
+        cancelAIMove();
+        neuralNetworkService.stopPondering();
+        aiExecutor.shutdown();
+        try {
+            aiExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     /**
      * Manipula o clique no overlay.
      */
@@ -221,17 +328,20 @@ public class VelhaController {
 
     private void checkGameEnd() {
         if (game.isGameOver()) {
+            neuralNetworkService.stopPondering();
             isGameStarted = false;
             enableButtons(false);
             btnStart.setDisable(false);
             updateScore();
 
+            // Toda partida encerrada, inclusive empate, vai para a IA, que decide o
+            // que aprender; o aprendizado fica na thread da IA, depois das jogadas pendentes
+            Game finishedGame = game;
+            aiExecutor.execute(() -> session.registerGameResult(finishedGame));
+
             String message;
             if (game.getWinner() != null) {
                 message = "Jogador " + game.getWinner().name() + " venceu!\nClique para jogar novamente.";
-                if (neuralNetworkService instanceof NeuralNetworkServiceImpl) {
-                    ((NeuralNetworkServiceImpl) neuralNetworkService).registerGameResult(game);
-                }
             } else {
                 message = "Empate!\nClique para jogar novamente.";
             }
@@ -242,10 +352,11 @@ public class VelhaController {
     }
 
     private void updateBoard() {
-        char[][] state = game.getBoard().getState();
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                buttons[i][j].setText(state[i][j] == ' ' ? "" : String.valueOf(state[i][j]));
+        Board board = game.getBoard();
+        for (int i = 0; i < boardSize; i++) {
+            for (int j = 0; j < boardSize; j++) {
+                char cell = board.getCell(i, j);
+                buttons[i][j].setText(cell == ' ' ? "" : String.valueOf(cell));
             }
         }
     }
@@ -260,16 +371,16 @@ public class VelhaController {
     }
 
     private void clearBoard() {
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
+        for (int i = 0; i < boardSize; i++) {
+            for (int j = 0; j < boardSize; j++) {
                 buttons[i][j].setText("");
             }
         }
     }
 
     private void enableButtons(boolean enable) {
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
+        for (int i = 0; i < boardSize; i++) {
+            for (int j = 0; j < boardSize; j++) {
                 buttons[i][j].setDisable(!enable);
             }
         }
@@ -0,0 +1,357 @@
+package com.allan.velha.server;
+
+import com.allan.velha.domain.metrics.EngineMetrics;
+import com.allan.velha.domain.metrics.LatencyHistogram;
+import com.allan.velha.domain.model.Board;
+import com.allan.velha.domain.model.Game;
+import com.allan.velha.domain.model.GameMemory;
+import com.allan.velha.domain.model.GameRecordWriter;
+import com.allan.velha.domain.service.GameSessionService;
+import com.allan.velha.domain.service.NeuralNetworkService;
+import com.allan.velha.domain.service.impl.NeuralNetworkServiceFactory;
+import com.allan.velha.domain.service.impl.PooledServiceImpl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Servidor sem interface que hospeda muitas sessões simultâneas, cada uma com
+ * seu {@link GameSessionService}, em um socket TCP local. Cada conexão é uma
+ * sessão atendida por uma thread própria: virtual quando a JVM oferece
+ * (Java 21+), senão de um pool de threads da plataforma. As sessões dividem um
+ * número fixo de instâncias da IA ({@link PooledServiceImpl}, {@code --engines},
+ * padrão um por processador), para que milhares de sessões não criem milhares
+ * de IAs. IAs heurísticas compartilham a {@link GameMemory#shared()}.
+ * <p>
+ * Protocolo, uma linha por comando e uma linha de resposta (o cliente joga com X,
+ * a IA com O):
+ * <ul>
+ * <li>{@code NEW} ou {@code NEW AI} - nova partida, começando pelo cliente ou pela IA;
+ * responde {@code OK} ou, se a IA começa, {@code MOVE <linha> <coluna>}</li>
+ * <li>{@code MOVE <linha> <coluna>} - jogada do cliente; responde com a jogada
+ * da IA ({@code MOVE <linha> <coluna>}), seguida de {@code END X|O|DRAW} na
+ * mesma linha se a partida acabou. Se a jogada do cliente encerra a partida,
+ * a resposta é só {@code END X|DRAW}</li>
+ * <li>{@code BOARD} - responde {@code BOARD <casas>}, uma letra por casa ({@code X}, {@code O} ou {@code .})</li>
+ * <li>{@code QUIT} - responde {@code BYE} e fecha a conexão</li>
+ * </ul>
+ * Comandos inválidos recebem {@code ERR <mensagem>}. Periodicamente o servidor
+ * imprime as sessões ativas, partidas por segundo e os percentis da latência das
+ * jogadas da IA. Com {@code --record}, as partidas encerradas de todas as
+ * sessões são arquivadas em um único arquivo ({@link GameRecordWriter}),
+ * gravado a cada relatório e no fechamento.
+ * <p>
+ * Uso: {@code GameServer [--port N] [--engine IA] [--engines N] [--size N] [--win N] [--seed N]
+ * [--report-ms N] [--record arquivo]}
+ */
+public final class GameServer implements AutoCloseable {
+    private final Options options;
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final LongAdder sessions = new LongAdder();
+    private final LongAdder games = new LongAdder();
+    private final ExecutorService sessionExecutor = sessionExecutor();
+    private GameMemory gameMemory;
+    private NeuralNetworkService engine;
+    private volatile GameRecordWriter recorder;
+    private ServerSocket serverSocket;
+    private long startNanos;
+
+    public GameServer(Options options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        try (GameServer server = new GameServer(Options.parse(args))) {
+            server.start();
+            System.out.println("Servidor escutando em " + server.getPort());
+            server.serve();
+        }
+    }
+
+    /**
+     * Abre o socket local. A porta 0 escolhe uma porta livre.
+     */
+    public void start() throws IOException {
+        gameMemory = GameMemory.shared();
+        engine = new PooledServiceImpl(options.engine, options.engines, options.seed, gameMemory);
+        if (options.record != null) {
+            recorder = new GameRecordWriter(options.record, options.size, options.winLength);
+        }
+        serverSocket = new ServerSocket(options.port, 1024, InetAddress.getLoopbackAddress());
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Aceita conexões até o servidor ser fechado.
+     */
+    public void serve() throws IOException {
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "server-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> {
+            System.out.println(report());
+            flushRecords();
+        }, options.reportMillis, options.reportMillis, TimeUnit.MILLISECONDS);
+        try {
+            while (!serverSocket.isClosed()) {
+                Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                } catch (SocketException e) {
+                    break; // socket fechado por close()
+                }
+                sessionExecutor.execute(() -> handle(socket));
+            }
+        } finally {
+            reporter.shutdownNow();
+        }
+    }
+
+    /**
+     * Grava as partidas arquivadas ainda no buffer, a cada relatório.
+     */
+    private void flushRecords() {
+        GameRecordWriter current = recorder;
+        if (current != null) {
+            try {
+                current.flush();
+            } catch (IOException e) {
+                System.err.println("Erro ao arquivar as partidas: " + e.getMessage());
+            }
+        }
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return Sessões ativas, partidas por segundo e latência das jogadas da IA
+     */
+    public String report() {
+        double seconds = Math.max(1e-9, (System.nanoTime() - startNanos) / 1e9);
+        return String.format("%d sessões ativas | %d sessões | %.0f sessões/s | %d partidas | %.0f partidas/s | "
+                + "%d jogadas da IA: %s", activeSessions.get(), sessions.sum(), sessions.sum() / seconds, games.sum(),
+                games.sum() / seconds, moveLatency.count(), moveLatency);
+    }
+
+    public LatencyHistogram getMoveLatency() {
+        return moveLatency;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (serverSocket != null) {
+            serverSocket.close();
+        }
+        sessionExecutor.shutdown();
+        try {
+            sessionExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (engine != null) {
+            engine.close();
+            engine = null;
+        }
+        if (gameMemory != null) {
+            gameMemory.close();
+            gameMemory = null;
+        }
+        if (recorder != null) {
+            recorder.close();
+            recorder = null;
+        }
+        System.out.println(report());
+        if (EngineMetrics.ENABLED) {
+            System.out.println(EngineMetrics.get().snapshot());
+        }
+    }
+
+    private void handle(Socket socket) {
+        activeSessions.incrementAndGet();
+        sessions.increment();
+        try (socket;
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                PrintWriter out = new PrintWriter(
+                        new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            socket.setTcpNoDelay(true);
+            GameSessionService session = new GameSessionService(engine, options.size, options.winLength, recorder);
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!execute(session, line.trim(), out)) {
+                    out.flush();
+                    break;
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            // Conexão encerrada pelo cliente
+        } catch (RuntimeException e) {
+            System.err.println("Erro na sessão: " + e.getMessage());
+        } finally {
+            activeSessions.decrementAndGet();
+        }
+    }
+
+    /**
+     * Executa um comando do protocolo.
+     *
+     * @return false quando a sessão deve ser encerrada
+     */
+    private boolean execute(GameSessionService session, String command, PrintWriter out) {
+        String[] parts = command.split("\\s+");
+        switch (parts[0].toUpperCase()) {
+            case "NEW" -> {
+                boolean aiFirst = parts.length > 1 && parts[1].equalsIgnoreCase("AI");
+                session.startGame(!aiFirst);
+                games.increment();
+                out.println(aiFirst ? playAI(session) : "OK");
+            }
+            case "MOVE" -> {
+                if (parts.length != 3) {
+                    out.println("ERR uso: MOVE <linha> <coluna>");
+                    return true;
+                }
+                int row;
+                int col;
+                try {
+                    row = Integer.parseInt(parts[1]);
+                    col = Integer.parseInt(parts[2]);
+                } catch (NumberFormatException e) {
+                    out.println("ERR coordenadas inválidas");
+                    return true;
+                }
+                if (!session.playHumanMove(row, col)) {
+                    out.println(session.isHumanTurn() ? "ERR jogada inválida" : "ERR não é sua vez");
+                    return true;
+                }
+                String end = finishIfOver(session);
+                out.println(end != null ? end : playAI(session));
+            }
+            case "BOARD" -> out.println("BOARD " + boardText(session.getGame()));
+            case "QUIT" -> {
+                out.println("BYE");
+                return false;
+            }
+            default -> out.println("ERR comando desconhecido: " + parts[0]);
+        }
+        return true;
+    }
+
+    /**
+     * Faz a jogada da IA.
+     *
+     * @return Linha de resposta com a jogada e o fim da partida, se houver
+     */
+    private String playAI(GameSessionService session) {
+        long start = System.nanoTime();
+        int[] move = session.playAIMove();
+        moveLatency.record(System.nanoTime() - start);
+        if (move == null) {
+            return "ERR a IA não encontrou jogada";
+        }
+        String end = finishIfOver(session);
+        return "MOVE " + move[0] + " " + move[1] + (end != null ? " " + end : "");
+    }
+
+    /**
+     * @return {@code END <vencedor>} se a partida acabou, registrando o resultado; senão null
+     */
+    private String finishIfOver(GameSessionService session) {
+        Game game = session.getGame();
+        if (!game.isGameOver()) {
+            return null;
+        }
+        session.registerGameResult(game);
+        return "END " + (game.getWinner() != null ? game.getWinner().name() : "DRAW");
+    }
+
+    private static String boardText(Game game) {
+        if (game == null) {
+            return "";
+        }
+        Board board = game.getBoard();
+        StringBuilder text = new StringBuilder(board.getSize() * board.getSize());
+        for (int i = 0; i < board.getSize(); i++) {
+            for (int j = 0; j < board.getSize(); j++) {
+                char cell = board.getCell(i, j);
+                text.append(cell == ' ' ? '.' : cell);
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Uma thread virtual por sessão quando disponível (Java 21+); no Java 17,
+     * um pool de threads da plataforma criadas sob demanda.
+     */
+    static ExecutorService sessionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "velha-session-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Opções do servidor.
+     */
+    public record Options(int port, String engine, int engines, int size, int winLength, long seed,
+            long reportMillis, Path record) {
+
+        /**
+         * Lê as opções da linha de comando, usando os padrões para as omitidas.
+         */
+        public static Options parse(String[] args) {
+            int port = 7777;
+            String engine = NeuralNetworkServiceFactory.DEFAULT_ENGINE;
+            int engines = Runtime.getRuntime().availableProcessors();
+            int size = Board.DEFAULT_SIZE;
+            Integer winLength = null;
+            long seed = 42;
+            long reportMillis = 5000;
+            Path record = null;
+
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--port" -> port = Integer.parseInt(args[++i]);
+                    case "--engine" -> engine = args[++i];
+                    case "--engines" -> engines = Integer.parseInt(args[++i]);
+                    case "--size" -> size = Integer.parseInt(args[++i]);
+                    case "--win" -> winLength = Integer.parseInt(args[++i]);
+                    case "--seed" -> seed = Long.parseLong(args[++i]);
+                    case "--report-ms" -> reportMillis = Long.parseLong(args[++i]);
+                    case "--record" -> record = Path.of(args[++i]);
+                    default -> throw new IllegalArgumentException("Opção desconhecida: " + args[i]);
+                }
+            }
+            return new Options(port, engine, engines, size, winLength != null ? winLength : Math.min(size, 5), seed,
+                    reportMillis, record);
+        }
+    }
+}
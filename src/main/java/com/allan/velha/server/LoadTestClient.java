@@ -0,0 +1,149 @@
+package com.allan.velha.server;
+
+import com.allan.velha.domain.metrics.LatencyHistogram;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gerador de carga para o {@link GameServer}: abre várias sessões simultâneas,
+ * cada uma jogando partidas com jogadas aleatórias, e mede do lado do cliente
+ * a latência de cada jogada (ida e volta, incluindo a resposta da IA).
+ * <p>
+ * Uso: {@code LoadTestClient [--port N] [--sessions N] [--games N] [--seed N]}
+ * ({@code --games} é o número de partidas por sessão).
+ */
+public final class LoadTestClient {
+    private final int port;
+    private final int sessions;
+    private final int gamesPerSession;
+    private final long seed;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder games = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public LoadTestClient(int port, int sessions, int gamesPerSession, long seed) {
+        this.port = port;
+        this.sessions = sessions;
+        this.gamesPerSession = gamesPerSession;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = 7777;
+        int sessions = 1000;
+        int games = 10;
+        long seed = 42;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port" -> port = Integer.parseInt(args[++i]);
+                case "--sessions" -> sessions = Integer.parseInt(args[++i]);
+                case "--games" -> games = Integer.parseInt(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                default -> throw new IllegalArgumentException("Opção desconhecida: " + args[i]);
+            }
+        }
+        System.out.println(new LoadTestClient(port, sessions, games, seed).run());
+    }
+
+    /**
+     * Executa todas as sessões e aguarda o fim.
+     *
+     * @return Resumo com sessões por segundo e percentis da latência das jogadas
+     */
+    public String run() throws Exception {
+        SplittableRandom seeds = new SplittableRandom(seed);
+        ExecutorService executor = GameServer.sessionExecutor();
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < sessions; i++) {
+                SplittableRandom random = seeds.split();
+                futures.add(executor.submit(() -> {
+                    try {
+                        playSession(random);
+                    } catch (IOException e) {
+                        failures.increment();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return String.format("%d sessões (%d falhas) | %.0f sessões/s | %d partidas | %.0f partidas/s | "
+                + "%d jogadas: %s", sessions, failures.sum(), sessions / seconds, games.sum(), games.sum() / seconds,
+                latency.count(), latency);
+    }
+
+    private void playSession(SplittableRandom random) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                PrintWriter out = new PrintWriter(
+                        new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true)) {
+            socket.setTcpNoDelay(true);
+            for (int g = 0; g < gamesPerSession; g++) {
+                out.println(g % 2 == 0 ? "NEW" : "NEW AI");
+                boolean over = readUntilTurn(in);
+                while (!over) {
+                    out.println("BOARD");
+                    String board = in.readLine().substring("BOARD ".length());
+                    int size = (int) Math.round(Math.sqrt(board.length()));
+                    int cell = randomEmptyCell(board, random);
+                    long start = System.nanoTime();
+                    out.println("MOVE " + cell / size + " " + cell % size);
+                    over = readUntilTurn(in);
+                    latency.record(System.nanoTime() - start);
+                }
+                games.increment();
+            }
+            out.println("QUIT");
+            in.readLine();
+        }
+    }
+
+    /**
+     * Lê a resposta de um comando.
+     *
+     * @return true se a partida acabou
+     */
+    private static boolean readUntilTurn(BufferedReader in) throws IOException {
+        String line = in.readLine();
+        if (line == null || line.startsWith("ERR")) {
+            throw new IOException("Resposta inesperada: " + line);
+        }
+        return line.contains("END");
+    }
+
+    private static int randomEmptyCell(String board, SplittableRandom random) {
+        int empty = 0;
+        for (int i = 0; i < board.length(); i++) {
+            if (board.charAt(i) == '.') {
+                empty++;
+            }
+        }
+        int pick = random.nextInt(empty);
+        for (int i = 0; i < board.length(); i++) {
+            if (board.charAt(i) == '.' && pick-- == 0) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Tabuleiro cheio");
+    }
+}
@@ -0,0 +1,64 @@
+package com.allan.velha.simulation;
+
+import com.allan.velha.domain.model.Game;
+import com.allan.velha.domain.model.GameRecord;
+import com.allan.velha.domain.model.GameRecordReader;
+import com.allan.velha.domain.model.Player;
+import com.allan.velha.domain.service.NeuralNetworkService;
+import com.allan.velha.domain.service.impl.NeuralNetworkServiceFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Lê um arquivo de partidas gravado com {@code --record} pelo simulador ou pelo
+ * servidor e imprime o resumo: resultados, duração média das partidas e bytes
+ * por partida. Com {@code --learn}, cada partida encerrada também é entregue ao
+ * aprendizado da IA, que grava o que aprendeu ao ser fechada; só IAs que
+ * aprendem com as jogadas da própria partida, como {@code qlearning},
+ * aproveitam partidas que não jogaram.
+ * <p>
+ * O arquivo é lido em sequência, sem carregá-lo na memória.
+ * <p>
+ * Uso: {@code GameRecordReplay arquivo [--learn IA]}
+ */
+public final class GameRecordReplay {
+
+    private GameRecordReplay() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1 && (args.length != 3 || !args[1].equals("--learn"))) {
+            throw new IllegalArgumentException("Uso: GameRecordReplay arquivo [--learn IA]");
+        }
+        Path file = Path.of(args[0]);
+        long[] results = new long[GameRecord.Result.values().length];
+        long games = 0;
+        long moves = 0;
+        long start = System.nanoTime();
+
+        try (GameRecordReader reader = new GameRecordReader(file);
+                NeuralNetworkService learner = args.length == 3 ? NeuralNetworkServiceFactory.create(args[2]) : null) {
+            Player x = new Player("X");
+            Player o = new Player("O");
+            while (reader.next()) {
+                games++;
+                moves += reader.getMoveCount();
+                results[reader.getResult().ordinal()]++;
+                if (learner != null && reader.getResult() != GameRecord.Result.UNFINISHED) {
+                    learner.registerGameResult(reader.toGame(x, o));
+                }
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long total = Math.max(1, games);
+        System.out.printf("%d partidas | X %.1f%% | O %.1f%% | empates %.1f%% | incompletas %.1f%%%n", games,
+                100.0 * results[GameRecord.Result.X.ordinal()] / total,
+                100.0 * results[GameRecord.Result.O.ordinal()] / total,
+                100.0 * results[GameRecord.Result.DRAW.ordinal()] / total,
+                100.0 * results[GameRecord.Result.UNFINISHED.ordinal()] / total);
+        System.out.printf("%.2f jogadas por partida | %.2f bytes por partida | %.0f partidas/s%n",
+                (double) moves / total, (double) Files.size(file) / total, games / Math.max(1e-9, seconds));
+    }
+}
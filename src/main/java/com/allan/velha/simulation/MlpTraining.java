@@ -0,0 +1,58 @@
+package com.allan.velha.simulation;
+
+import com.allan.velha.domain.service.impl.MlpTrainer;
+
+import java.nio.file.Path;
+
+/**
+ * Treina por autojogo a rede da IA {@code mlp} e grava os pesos no arquivo lido
+ * pela IA. A cada rodada imprime as partidas por segundo e a fração das posições
+ * em que a política da rede já escolhe uma jogada perfeita; no fim, o tempo de
+ * inferência por posição.
+ * <p>
+ * Uso: {@code MlpTraining [--games N] [--hidden N] [--round N] [--seed N] [--out arquivo]}
+ */
+public final class MlpTraining {
+
+    private MlpTraining() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        MlpTrainer trainer = new MlpTrainer(options.hidden, options.roundGames, options.seed);
+        trainer.train(options.games, System.out::println);
+        trainer.nanosPerPosition(1_000_000); // aquecimento
+        System.out.printf("Inferência: %.0f ns por posição%n", trainer.nanosPerPosition(1_000_000));
+        trainer.save(options.out);
+        System.out.println("Pesos gravados em " + options.out);
+    }
+
+    /**
+     * Opções do treino.
+     */
+    public record Options(long games, int hidden, int roundGames, long seed, Path out) {
+
+        /**
+         * Lê as opções da linha de comando, usando os padrões para as omitidas.
+         */
+        public static Options parse(String[] args) {
+            long games = 200_000;
+            int hidden = 32;
+            int roundGames = 1000;
+            long seed = 42;
+            Path out = Path.of(System.getProperty("velha.memory.dir", "src/main/resources/data"), "mlp.dat");
+
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--games" -> games = Long.parseLong(args[++i]);
+                    case "--hidden" -> hidden = Integer.parseInt(args[++i]);
+                    case "--round" -> roundGames = Integer.parseInt(args[++i]);
+                    case "--seed" -> seed = Long.parseLong(args[++i]);
+                    case "--out" -> out = Path.of(args[++i]);
+                    default -> throw new IllegalArgumentException("Opção desconhecida: " + args[i]);
+                }
+            }
+            return new Options(games, hidden, roundGames, seed, out);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.allan.velha.simulation;
+
+import com.allan.velha.domain.service.impl.QLearningTrainer;
+
+import java.nio.file.Path;
+
+/**
+ * Treina por autojogo a tabela da IA {@code qlearning} e a grava no arquivo
+ * lido pela IA. A cada rodada imprime as partidas por segundo e a fração das
+ * posições em que a tabela já escolhe uma jogada perfeita.
+ * <p>
+ * Uso: {@code QLearningTraining [--games N] [--threads N] [--round N] [--seed N] [--out arquivo]}
+ */
+public final class QLearningTraining {
+
+    private QLearningTraining() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        QLearningTrainer trainer = new QLearningTrainer(options.threads, options.roundGames, options.seed);
+        trainer.train(options.games, System.out::println);
+        trainer.save(options.out);
+        System.out.println("Tabela gravada em " + options.out);
+    }
+
+    /**
+     * Opções do treino.
+     */
+    public record Options(long games, int threads, long roundGames, long seed, Path out) {
+
+        /**
+         * Lê as opções da linha de comando, usando os padrões para as omitidas.
+         */
+        public static Options parse(String[] args) {
+            long games = 2_000_000;
+            int threads = Runtime.getRuntime().availableProcessors();
+            long roundGames = 100_000;
+            long seed = 42;
+            Path out = Path.of(System.getProperty("velha.memory.dir", "src/main/resources/data"), "qlearning.dat");
+
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--games" -> games = Long.parseLong(args[++i]);
+                    case "--threads" -> threads = Integer.parseInt(args[++i]);
+                    case "--round" -> roundGames = Long.parseLong(args[++i]);
+                    case "--seed" -> seed = Long.parseLong(args[++i]);
+                    case "--out" -> out = Path.of(args[++i]);
+                    default -> throw new IllegalArgumentException("Opção desconhecida: " + args[i]);
+                }
+            }
+            return new Options(games, threads, roundGames, seed, out);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.allan.velha.simulation;
+
+import com.allan.velha.domain.metrics.EngineMetrics;
+import com.allan.velha.domain.model.Board;
+import com.allan.velha.domain.model.Game;
+import com.allan.velha.domain.model.GameMemory;
+import com.allan.velha.domain.model.GameRecordWriter;
+import com.allan.velha.domain.model.Player;
+import com.allan.velha.domain.service.NeuralNetworkService;
+import com.allan.velha.domain.service.impl.NeuralNetworkServiceFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Simulador de partidas sem interface gráfica.
+ * Coloca duas IAs (ou adversários {@code random} e {@code scripted:...}) para
+ * jogar entre si em todas as threads disponíveis e imprime o placar parcial
+ * periodicamente. Cada thread recebe uma semente derivada da semente principal
+ * e joga um conjunto fixo de partidas, então o resultado é reproduzível para a
+ * mesma semente e número de threads (exceto com IAs limitadas por tempo).
+ * Com {@code --record}, todas as partidas são arquivadas ({@link GameRecordWriter}).
+ * <p>
+ * Uso: {@code SelfPlaySimulator [--games N] [--threads N] [--seed N] [--x IA]
+ * [--o IA] [--size N] [--win N] [--learn] [--no-alternate] [--report-ms N] [--batch N] [--record arquivo]}
+ */
+public final class SelfPlaySimulator {
+    private final Options options;
+    private final LongAdder xWins = new LongAdder();
+    private final LongAdder oWins = new LongAdder();
+    private final LongAdder draws = new LongAdder();
+    private GameMemory gameMemory;
+    private GameRecordWriter recorder;
+    private long startNanos;
+
+    public SelfPlaySimulator(Options options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        SelfPlaySimulator simulator = new SelfPlaySimulator(Options.parse(args));
+        SimulationResult result = simulator.run();
+        System.out.println("Resultado: " + result);
+        if (EngineMetrics.ENABLED) {
+            System.out.println(EngineMetrics.get().snapshot());
+        }
+    }
+
+    /**
+     * Executa todas as partidas e aguarda o fim.
+     */
+    public SimulationResult run() throws Exception {
+        boolean usesMemory = options.x.equals("heuristic") || options.o.equals("heuristic");
+        gameMemory = usesMemory ? GameMemory.shared() : null;
+        recorder = options.record != null ? new GameRecordWriter(options.record, options.size, options.winLength) : null;
+        startNanos = System.nanoTime();
+
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "simulation-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> System.out.println(snapshot()),
+                options.reportMillis, options.reportMillis, TimeUnit.MILLISECONDS);
+
+        ExecutorService workers = Executors.newFixedThreadPool(options.threads);
+        try {
+            SplittableRandom seeds = new SplittableRandom(options.seed);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int worker = 0; worker < options.threads; worker++) {
+                SplittableRandom random = seeds.split();
+                int first = worker;
+                futures.add(workers.submit(() -> play(first, random)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            workers.shutdown();
+            reporter.shutdownNow();
+            if (gameMemory != null) {
+                gameMemory.close();
+            }
+            if (recorder != null) {
+                recorder.close();
+            }
+        }
+        return snapshot();
+    }
+
+    /**
+     * @return Placar parcial
+     */
+    public SimulationResult snapshot() {
+        return new SimulationResult(xWins.sum(), oWins.sum(), draws.sum(), System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Joga as partidas {@code first}, {@code first + threads}, ... com as IAs da thread.
+     * Até {@code batch} partidas andam juntas: a cada rodada, cada IA escolhe em
+     * uma só chamada as jogadas de todas as partidas em que é a sua vez.
+     */
+    private void play(int first, SplittableRandom random) {
+        NeuralNetworkService playerX = NeuralNetworkServiceFactory.create(options.x, random.nextLong(), gameMemory);
+        NeuralNetworkService playerO = NeuralNetworkServiceFactory.create(options.o, random.nextLong(), gameMemory);
+        Player x = new Player("X");
+        Player o = new Player("O");
+        Game[] games = new Game[options.batch];
+        boolean[] stuck = new boolean[options.batch];
+        Batch batch = new Batch(options.batch);
+        long next = first;
+
+        try {
+            int active = 0;
+            for (; active < games.length && next < options.games; active++, next += options.threads) {
+                games[active] = newGame(x, o, next);
+            }
+            while (active > 0) {
+                batch.move(playerX, 'X', games, stuck, active);
+                batch.move(playerO, 'O', games, stuck, active);
+
+                // Partidas encerradas dão lugar às próximas
+                for (int i = 0; i < active; i++) {
+                    Game game = games[i];
+                    if (!game.isGameOver() && !stuck[i]) {
+                        continue;
+                    }
+                    stuck[i] = false;
+                    if (game.getWinner() == x) {
+                        xWins.increment();
+                    } else if (game.getWinner() == o) {
+                        oWins.increment();
+                    } else {
+                        draws.increment();
+                    }
+                    if (options.learn) {
+                        playerX.registerGameResult(game);
+                        playerO.registerGameResult(game);
+                    }
+                    if (recorder != null) {
+                        record(game);
+                    }
+                    if (next < options.games) {
+                        games[i] = newGame(x, o, next);
+                        next += options.threads;
+                    } else {
+                        games[i] = games[--active];
+                        stuck[i--] = stuck[active];
+                        stuck[active] = false;
+                    }
+                }
+            }
+        } finally {
+            playerX.close();
+            playerO.close();
+        }
+    }
+
+    private void record(Game game) {
+        try {
+            recorder.write(game);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Game newGame(Player x, Player o, long index) {
+        Game game = new Game(x, o, options.size, options.winLength);
+        if (options.alternate && index % 2 == 1) {
+            game.setCurrentPlayer(o);
+        }
+        return game;
+    }
+
+    /**
+     * Buffers reutilizados para pedir as jogadas de várias partidas em uma chamada.
+     */
+    private static final class Batch {
+        private final Game[] games;
+        private final int[] slots;
+        private final int[] moves;
+
+        Batch(int capacity) {
+            games = new Game[capacity];
+            slots = new int[capacity];
+            moves = new int[capacity];
+        }
+
+        /**
+         * Faz a jogada do símbolo em todas as partidas em que é a sua vez. Uma
+         * partida em que a IA não encontra jogada é marcada em {@code stuck} e
+         * contada como empate.
+         */
+        void move(NeuralNetworkService player, char symbol, Game[] active, boolean[] stuck, int activeCount) {
+            int count = 0;
+            for (int i = 0; i < activeCount; i++) {
+                if (!active[i].isGameOver() && !stuck[i] && active[i].getCurrentSymbol() == symbol) {
+                    games[count] = active[i];
+                    slots[count++] = i;
+                }
+            }
+            if (count == 0) {
+                return;
+            }
+            player.predictNextMoves(games, count, moves);
+            for (int i = 0; i < count; i++) {
+                int size = games[i].getBoard().getSize();
+                if (moves[i] < 0) {
+                    stuck[slots[i]] = true;
+                } else {
+                    games[i].makeMove(moves[i] / size, moves[i] % size);
+                }
+                games[i] = null;
+            }
+        }
+    }
+
+    /**
+     * Opções da simulação.
+     */
+    public record Options(long games, int threads, long seed, String x, String o, int size, int winLength,
+            boolean learn, boolean alternate, long reportMillis, int batch, Path record) {
+
+        /**
+         * Lê as opções da linha de comando, usando os padrões para as omitidas.
+         */
+        public static Options parse(String[] args) {
+            long games = 100_000;
+            int threads = Runtime.getRuntime().availableProcessors();
+            long seed = 42;
+            String x = "heuristic";
+            String o = "random";
+            int size = Board.DEFAULT_SIZE;
+            Integer winLength = null;
+            boolean learn = false;
+            boolean alternate = true;
+            long reportMillis = 1000;
+            int batch = 64;
+            Path record = null;
+
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--games" -> games = Long.parseLong(args[++i]);
+                    case "--threads" -> threads = Integer.parseInt(args[++i]);
+                    case "--seed" -> seed = Long.parseLong(args[++i]);
+                    case "--x" -> x = args[++i];
+                    case "--o" -> o = args[++i];
+                    case "--size" -> size = Integer.parseInt(args[++i]);
+                    case "--win" -> winLength = Integer.parseInt(args[++i]);
+                    case "--learn" -> learn = true;
+                    case "--no-alternate" -> alternate = false;
+                    case "--report-ms" -> reportMillis = Long.parseLong(args[++i]);
+                    case "--batch" -> batch = Integer.parseInt(args[++i]);
+                    case "--record" -> record = Path.of(args[++i]);
+                    default -> throw new IllegalArgumentException("Opção desconhecida: " + args[i]);
+                }
+            }
+            return new Options(games, threads, seed, x, o, size, winLength != null ? winLength : Math.min(size, 5),
+                    learn, alternate, reportMillis, batch, record);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.allan.velha.simulation;
+
+/**
+ * Placar de uma simulação.
+ *
+ * @param xWins        Vitórias de X
+ * @param oWins        Vitórias de O
+ * @param draws        Empates
+ * @param elapsedNanos Duração da simulação
+ */
+public record SimulationResult(long xWins, long oWins, long draws, long elapsedNanos) {
+
+    public long games() {
+        return xWins + oWins + draws;
+    }
+
+    public double gamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games() * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        long games = Math.max(1, games());
+        return String.format("%d partidas | X %.1f%% | O %.1f%% | empates %.1f%% | %.0f partidas/s",
+                games(), 100.0 * xWins / games, 100.0 * oWins / games, 100.0 * draws / games, gamesPerSecond());
+    }
+}